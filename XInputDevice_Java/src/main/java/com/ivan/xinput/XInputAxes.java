@@ -61,6 +61,17 @@ public class XInputAxes {
         }
     }
 
+    /**
+     * Gets the normalized or the raw value from the specified axis.
+     *
+     * @param axis the axis
+     * @param normalized <code>true</code> to get the normalized value, <code>false</code> to get the raw value
+     * @return the value of the axis
+     */
+    float get(final XInputAxis axis, final boolean normalized) {
+        return normalized ? get(axis) : getRaw(axis);
+    }
+
     /**
      * Gets the raw value from the specified axis.
      *
@@ -8,14 +8,76 @@ import com.ivan.xinput.enums.XInputAxis;
  * @author Ivan "StrikerX3" Oliveira
  */
 public class XInputAxesDelta {
-    private final XInputAxes lastAxes;
-    private final XInputAxes axes;
+    private XInputAxes lastAxes;
+    private XInputAxes axes;
+
+    private int changedMask;
 
     protected XInputAxesDelta(final XInputAxes lastAxes, final XInputAxes axes) {
         this.lastAxes = lastAxes;
         this.axes = axes;
     }
 
+    /**
+     * Points the delta to a new pair of axis states. The mask is not recomputed until the next {@link #update()}.
+     *
+     * @param lastAxes the axes of the previous poll
+     * @param axes the axes of the last poll
+     */
+    protected void setAxes(final XInputAxes lastAxes, final XInputAxes axes) {
+        this.lastAxes = lastAxes;
+        this.axes = axes;
+    }
+
+    /**
+     * Recomputes the mask of changed axes from the current states of the axes.
+     */
+    protected void update() {
+        int mask = 0;
+        if (lastAxes.lxRaw != axes.lxRaw || lastAxes.lx != axes.lx) {
+            mask |= 1 << XInputAxis.LEFT_THUMBSTICK_X.ordinal();
+        }
+        if (lastAxes.lyRaw != axes.lyRaw || lastAxes.ly != axes.ly) {
+            mask |= 1 << XInputAxis.LEFT_THUMBSTICK_Y.ordinal();
+        }
+        if (lastAxes.rxRaw != axes.rxRaw || lastAxes.rx != axes.rx) {
+            mask |= 1 << XInputAxis.RIGHT_THUMBSTICK_X.ordinal();
+        }
+        if (lastAxes.ryRaw != axes.ryRaw || lastAxes.ry != axes.ry) {
+            mask |= 1 << XInputAxis.RIGHT_THUMBSTICK_Y.ordinal();
+        }
+        if (lastAxes.ltRaw != axes.ltRaw || lastAxes.lt != axes.lt) {
+            mask |= 1 << XInputAxis.LEFT_TRIGGER.ordinal();
+        }
+        if (lastAxes.rtRaw != axes.rtRaw || lastAxes.rt != axes.rt) {
+            mask |= 1 << XInputAxis.RIGHT_TRIGGER.ordinal();
+        }
+        if (lastAxes.dpad != axes.dpad) {
+            mask |= 1 << XInputAxis.DPAD.ordinal();
+        }
+        changedMask = mask;
+    }
+
+    /**
+     * Returns the bit mask of the axes that changed between two consecutive polls. Bit <code>n</code> is set if the axis
+     * whose {@link XInputAxis#ordinal() ordinal} is <code>n</code> changed.
+     *
+     * @return the bit mask of the axes that changed
+     */
+    public int getChangedMask() {
+        return changedMask;
+    }
+
+    /**
+     * Determines whether the specified axis changed between two consecutive polls.
+     *
+     * @param axis the axis
+     * @return <code>true</code> if the axis changed, <code>false</code> otherwise
+     */
+    public boolean isChanged(final XInputAxis axis) {
+        return (changedMask & 1 << axis.ordinal()) != 0;
+    }
+
     /**
      * Returns the difference of the Left Thumb X axis between two consecutive polls. A positive value means the stick moved
      * to the right, while a negative value represents a movement to the left.
@@ -0,0 +1,264 @@
+package com.ivan.xinput;
+
+import com.ivan.xinput.enums.XInputAxis;
+
+/**
+ * A fixed-capacity history of the raw thumbstick and trigger values of a device, recorded on every successful poll.
+ * <p>
+ * The samples are kept in parallel primitive arrays used as a ring buffer, so recording and querying do not allocate
+ * memory. Queries take time proportional to the number of samples they look at. Set the history on a device with
+ * {@link XInputDevice#setAxisHistory(XInputAxisHistory)}.
+ * <p>
+ * The history is written by the thread polling the device, such as an {@link XInputPoller}, and may be queried from any
+ * thread, including listeners running on a {@link XInputDevice#setListenerExecutor(java.util.concurrent.Executor)
+ * listener executor}. Recording and every query hold the lock of the history, so each query sees whole samples, but
+ * consecutive queries may see different polls. To run several queries against the same samples, copy the history with
+ * {@link #copyTo(XInputAxisHistory)} and query the copy.
+ * <p>
+ * Values are reported in normalized units, from -1 to 1 for the thumbsticks and 0 to 1 for the triggers, and times in
+ * seconds. The {@link XInputAxis#DPAD DPAD} axis is not recorded.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputAxisHistory {
+    private final short[] lx, ly, rx, ry;
+    private final byte[] lt, rt;
+    private final long[] timestamps;
+    private final int mask;
+
+    private int head;// index of the next sample to write
+    private int size;
+
+    /**
+     * Creates an axis history.
+     *
+     * @param capacity the number of samples to keep, rounded up to a power of two
+     * @throws IllegalArgumentException if the capacity is less than 2 or too large
+     */
+    public XInputAxisHistory(final int capacity) {
+        if (capacity < 2 || capacity > 1 << 24) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        final int length = Integer.highestOneBit(capacity - 1) << 1;
+        lx = new short[length];
+        ly = new short[length];
+        rx = new short[length];
+        ry = new short[length];
+        lt = new byte[length];
+        rt = new byte[length];
+        timestamps = new long[length];
+        mask = length - 1;
+    }
+
+    /**
+     * Records the current raw values of the axes.
+     *
+     * @param axes the axes
+     * @param timestamp the {@link System#nanoTime()} of the poll
+     */
+    synchronized void record(final XInputAxes axes, final long timestamp) {
+        final int i = head;
+        lx[i] = (short) axes.lxRaw;
+        ly[i] = (short) axes.lyRaw;
+        rx[i] = (short) axes.rxRaw;
+        ry[i] = (short) axes.ryRaw;
+        lt[i] = (byte) axes.ltRaw;
+        rt[i] = (byte) axes.rtRaw;
+        timestamps[i] = timestamp;
+        head = i + 1 & mask;
+        if (size <= mask) {
+            size++;
+        }
+    }
+
+    /**
+     * Removes all samples.
+     */
+    public synchronized void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns the number of recorded samples, up to the capacity.
+     *
+     * @return the number of samples
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Copies the samples of this history into another history of the same capacity, replacing its samples. The copy is
+     * consistent: it holds the samples recorded up to a single poll. The target should not be set on a device.
+     *
+     * @param target the history to copy the samples into
+     * @throws IllegalArgumentException if the target is this history or has a different capacity
+     */
+    public void copyTo(final XInputAxisHistory target) {
+        if (target == this || target.mask != mask) {
+            throw new IllegalArgumentException("Invalid target history");
+        }
+        synchronized (target) {
+            synchronized (this) {
+                final int length = mask + 1;
+                System.arraycopy(lx, 0, target.lx, 0, length);
+                System.arraycopy(ly, 0, target.ly, 0, length);
+                System.arraycopy(rx, 0, target.rx, 0, length);
+                System.arraycopy(ry, 0, target.ry, 0, length);
+                System.arraycopy(lt, 0, target.lt, 0, length);
+                System.arraycopy(rt, 0, target.rt, 0, length);
+                System.arraycopy(timestamps, 0, target.timestamps, 0, length);
+                target.head = head;
+                target.size = size;
+            }
+        }
+    }
+
+    /**
+     * Returns the maximum number of samples.
+     *
+     * @return the capacity of the history
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the raw value of an axis a number of samples ago.
+     *
+     * @param axis the axis
+     * @param samplesAgo the age of the sample, where 0 is the latest sample
+     * @return the raw value of the axis
+     * @throws IndexOutOfBoundsException if there is no such sample
+     * @throws IllegalArgumentException if the axis is {@link XInputAxis#DPAD DPAD}
+     */
+    public synchronized int getRaw(final XInputAxis axis, final int samplesAgo) {
+        return raw(axis, index(samplesAgo));
+    }
+
+    /**
+     * Returns the normalized value of an axis a number of samples ago.
+     *
+     * @param axis the axis
+     * @param samplesAgo the age of the sample, where 0 is the latest sample
+     * @return the normalized value of the axis
+     * @throws IndexOutOfBoundsException if there is no such sample
+     * @throws IllegalArgumentException if the axis is {@link XInputAxis#DPAD DPAD}
+     */
+    public synchronized float get(final XInputAxis axis, final int samplesAgo) {
+        final float scale = scale(axis);
+        return raw(axis, index(samplesAgo)) * scale;
+    }
+
+    /**
+     * Returns the timestamp of a sample.
+     *
+     * @param samplesAgo the age of the sample, where 0 is the latest sample
+     * @return the {@link System#nanoTime()} of the poll that recorded the sample
+     * @throws IndexOutOfBoundsException if there is no such sample
+     */
+    public synchronized long getTimestamp(final int samplesAgo) {
+        return timestamps[index(samplesAgo)];
+    }
+
+    /**
+     * Returns the average velocity of an axis over the latest samples, which is the change of the axis between the oldest
+     * and the latest sample of the window divided by the time between them.
+     *
+     * @param axis the axis
+     * @param window the number of sample intervals to look at; the window spans <code>window + 1</code> samples
+     * @return the average velocity, in normalized units per second, or 0 if no time elapsed in the window
+     * @throws IndexOutOfBoundsException if there are not enough samples
+     * @throws IllegalArgumentException if the axis is {@link XInputAxis#DPAD DPAD} or the window is not positive
+     */
+    public synchronized float getVelocity(final XInputAxis axis, final int window) {
+        final float scale = scale(axis);
+        if (window < 1) {
+            throw new IllegalArgumentException("Invalid window: " + window);
+        }
+        return velocity(axis, index(0), index(window), scale);
+    }
+
+    /**
+     * Returns the largest acceleration of an axis over the latest samples, computed from the velocities between
+     * consecutive samples.
+     *
+     * @param axis the axis
+     * @param window the number of sample intervals to look at; the window spans <code>window + 1</code> samples
+     * @return the largest absolute acceleration, in normalized units per second squared
+     * @throws IndexOutOfBoundsException if there are not enough samples
+     * @throws IllegalArgumentException if the axis is {@link XInputAxis#DPAD DPAD} or the window is less than 2
+     */
+    public synchronized float getPeakAcceleration(final XInputAxis axis, final int window) {
+        final float scale = scale(axis);
+        if (window < 2) {
+            throw new IllegalArgumentException("Invalid window: " + window);
+        }
+        index(window);// check that there are enough samples
+        float peak = 0f;
+        int i = head - 1 & mask;
+        int prev = i - 1 & mask;
+        float velocity = velocity(axis, i, prev, scale);
+        long time = timestamps[i] - timestamps[prev];
+        for (int n = 1; n < window; n++) {
+            i = prev;
+            prev = i - 1 & mask;
+            final float earlier = velocity(axis, i, prev, scale);
+            final long earlierTime = timestamps[i] - timestamps[prev];
+            // the velocities are taken at the midpoints of their intervals
+            final long span = time + earlierTime;
+            if (span > 0) {
+                final float acceleration = Math.abs(velocity - earlier) / (span / 2e9f);
+                if (acceleration > peak) {
+                    peak = acceleration;
+                }
+            }
+            velocity = earlier;
+            time = earlierTime;
+        }
+        return peak;
+    }
+
+    private float velocity(final XInputAxis axis, final int newer, final int older, final float scale) {
+        final long elapsed = timestamps[newer] - timestamps[older];
+        return elapsed <= 0 ? 0f : (raw(axis, newer) - raw(axis, older)) * scale / (elapsed / 1e9f);
+    }
+
+    private int index(final int samplesAgo) {
+        if (samplesAgo < 0 || samplesAgo >= size) {
+            throw new IndexOutOfBoundsException("No sample " + samplesAgo + " polls ago; size: " + size);
+        }
+        return head - 1 - samplesAgo & mask;
+    }
+
+    private int raw(final XInputAxis axis, final int i) {
+        switch (axis) {
+            case LEFT_THUMBSTICK_X:
+                return lx[i];
+            case LEFT_THUMBSTICK_Y:
+                return ly[i];
+            case RIGHT_THUMBSTICK_X:
+                return rx[i];
+            case RIGHT_THUMBSTICK_Y:
+                return ry[i];
+            case LEFT_TRIGGER:
+                return lt[i] & 0xff;
+            case RIGHT_TRIGGER:
+                return rt[i] & 0xff;
+            default:
+                throw new IllegalArgumentException("Axis not recorded: " + axis);
+        }
+    }
+
+    private static float scale(final XInputAxis axis) {
+        switch (axis) {
+            case LEFT_TRIGGER:
+            case RIGHT_TRIGGER:
+                return 1f / 255f;
+            case DPAD:
+                throw new IllegalArgumentException("Axis not recorded: " + axis);
+            default:
+                return 1f / 32768f;
+        }
+    }
+}
@@ -1,7 +1,29 @@
 package com.ivan.xinput;
 
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_A;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_B;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_BACK;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_DPAD_DOWN;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_DPAD_LEFT;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_DPAD_RIGHT;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_DPAD_UP;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_GUIDE_BUTTON;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_LEFT_SHOULDER;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_LEFT_THUMB;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_RIGHT_SHOULDER;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_RIGHT_THUMB;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_START;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_UNKNOWN;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_X;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_Y;
+
+import com.ivan.xinput.enums.XInputButton;
+
 /**
  * Contains the states of all XInput buttons.
+ * <p>
+ * The state is kept as the {@code wButtons} bit mask reported by XInput (see {@link #getMask()}). The public
+ * {@code boolean} fields are a view of the mask kept for convenience; changing them does not affect the mask.
  *
  * @author Ivan "StrikerX3" Oliveira
  */
@@ -13,14 +35,68 @@ public class XInputButtons {
     public boolean up, down, left, right;
     public boolean guide, unknown;
 
+    private int mask;
+
     protected XInputButtons() {
         reset();
     }
 
+    /**
+     * Returns the bit mask of the pressed buttons, as a combination of the {@code XINPUT_GAMEPAD_*} constants or the
+     * {@link XInputButton#getMask() masks} of the buttons.
+     *
+     * @return the bit mask of the pressed buttons
+     */
+    public int getMask() {
+        return mask;
+    }
+
+    /**
+     * Determines whether the specified button is pressed.
+     *
+     * @param button the button
+     * @return <code>true</code> if the button is pressed, <code>false</code> otherwise
+     */
+    public boolean get(final XInputButton button) {
+        return (mask & button.getMask()) != 0;
+    }
+
+    /**
+     * Sets the state of all buttons from the specified bit mask.
+     *
+     * @param mask the bit mask of the pressed buttons
+     */
+    protected void setMask(final int mask) {
+        this.mask = mask & 0xffff;
+
+        a = (mask & XINPUT_GAMEPAD_A) != 0;
+        b = (mask & XINPUT_GAMEPAD_B) != 0;
+        x = (mask & XINPUT_GAMEPAD_X) != 0;
+        y = (mask & XINPUT_GAMEPAD_Y) != 0;
+
+        back = (mask & XINPUT_GAMEPAD_BACK) != 0;
+        start = (mask & XINPUT_GAMEPAD_START) != 0;
+
+        lShoulder = (mask & XINPUT_GAMEPAD_LEFT_SHOULDER) != 0;
+        rShoulder = (mask & XINPUT_GAMEPAD_RIGHT_SHOULDER) != 0;
+
+        lThumb = (mask & XINPUT_GAMEPAD_LEFT_THUMB) != 0;
+        rThumb = (mask & XINPUT_GAMEPAD_RIGHT_THUMB) != 0;
+
+        up = (mask & XINPUT_GAMEPAD_DPAD_UP) != 0;
+        down = (mask & XINPUT_GAMEPAD_DPAD_DOWN) != 0;
+        left = (mask & XINPUT_GAMEPAD_DPAD_LEFT) != 0;
+        right = (mask & XINPUT_GAMEPAD_DPAD_RIGHT) != 0;
+
+        guide = (mask & XINPUT_GAMEPAD_GUIDE_BUTTON) != 0;
+        unknown = (mask & XINPUT_GAMEPAD_UNKNOWN) != 0;
+    }
+
     /**
      * Resets the state of all buttons.
      */
     protected void reset() {
+        mask = 0;
         a = b = x = y = false;
         back = start = false;
         lShoulder = rShoulder = false;
@@ -35,6 +111,8 @@ public class XInputButtons {
      * @param buttons the state to copy from
      */
     protected void copy(final XInputButtons buttons) {
+        mask = buttons.mask;
+
         a = buttons.a;
         b = buttons.b;
         x = buttons.x;
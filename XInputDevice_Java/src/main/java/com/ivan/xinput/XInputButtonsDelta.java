@@ -4,81 +4,91 @@ import com.ivan.xinput.enums.XInputButton;
 
 /**
  * Represents the delta (change) of the buttons between two successive polls.
+ * <p>
+ * The pressed and released buttons are computed once per poll as bit masks, which can be tested against the
+ * {@link XInputButton#getMask() masks} of several buttons at once.
  *
  * @author Ivan "StrikerX3" Oliveira
  */
 public class XInputButtonsDelta {
-    private final XInputButtons lastButtons;
-    private final XInputButtons buttons;
+    private XInputButtons lastButtons;
+    private XInputButtons buttons;
+
+    private int pressedMask;
+    private int releasedMask;
 
     protected XInputButtonsDelta(final XInputButtons lastButtons, final XInputButtons buttons) {
         this.lastButtons = lastButtons;
         this.buttons = buttons;
     }
 
+    /**
+     * Points the delta to a new pair of button states. The masks are not recomputed until the next {@link #update()}.
+     *
+     * @param lastButtons the buttons of the previous poll
+     * @param buttons the buttons of the last poll
+     */
+    protected void setButtons(final XInputButtons lastButtons, final XInputButtons buttons) {
+        this.lastButtons = lastButtons;
+        this.buttons = buttons;
+    }
+
+    /**
+     * Recomputes the pressed and released masks from the current states of the buttons.
+     */
+    protected void update() {
+        final int last = lastButtons.getMask();
+        final int cur = buttons.getMask();
+        pressedMask = ~last & cur;
+        releasedMask = last & ~cur;
+    }
+
+    /**
+     * Returns the bit mask of the buttons that were pressed (i.e. changed from released to pressed between two consecutive
+     * polls).
+     *
+     * @return the bit mask of the buttons that were pressed
+     */
+    public int getPressedMask() {
+        return pressedMask;
+    }
+
+    /**
+     * Returns the bit mask of the buttons that were released (i.e. changed from pressed to released between two consecutive
+     * polls).
+     *
+     * @return the bit mask of the buttons that were released
+     */
+    public int getReleasedMask() {
+        return releasedMask;
+    }
+
+    /**
+     * Returns the bit mask of the buttons that were either pressed or released between two consecutive polls.
+     *
+     * @return the bit mask of the buttons that changed state
+     */
+    public int getChangedMask() {
+        return pressedMask | releasedMask;
+    }
+
     /**
      * Returns <code>true</code> if the button was pressed (i.e. changed from released to pressed between two consecutive polls).
-     * 
+     *
      * @param button the button
      * @return <code>true</code> if the button was pressed, <code>false</code> otherwise
      */
     public boolean isPressed(final XInputButton button) {
-        return delta(lastButtons, buttons, button);
+        return (pressedMask & button.getMask()) != 0;
     }
 
     /**
      * Returns <code>true</code> if the button was released (i.e. changed from pressed to released between two consecutive polls).
-     * 
+     *
      * @param button the button
      * @return <code>true</code> if the button was released, <code>false</code> otherwise
      */
     public boolean isReleased(final XInputButton button) {
-        return delta(buttons, lastButtons, button);
-    }
-
-    /**
-     * Determines if the state of a button was changed from one poll to the following poll.
-     * 
-     * @param from the old state
-     * @param to the new state
-     * @param button the button
-     * @return <code>true</code> if there was a change, <code>false</code> otherwise
-     */
-    private boolean delta(final XInputButtons from, final XInputButtons to, final XInputButton button) {
-        switch (button) {
-            case A:
-                return !from.a && to.a;
-            case B:
-                return !from.b && to.b;
-            case X:
-                return !from.x && to.x;
-            case Y:
-                return !from.y && to.y;
-            case BACK:
-                return !from.back && to.back;
-            case START:
-                return !from.start && to.start;
-            case LEFT_SHOULDER:
-                return !from.lShoulder && to.lShoulder;
-            case RIGHT_SHOULDER:
-                return !from.rShoulder && to.rShoulder;
-            case LEFT_THUMBSTICK:
-                return !from.lThumb && to.lThumb;
-            case RIGHT_THUMBSTICK:
-                return !from.rThumb && to.rThumb;
-            case DPAD_UP:
-                return !from.up && to.up;
-            case DPAD_DOWN:
-                return !from.down && to.down;
-            case DPAD_LEFT:
-                return !from.left && to.left;
-            case DPAD_RIGHT:
-                return !from.right && to.right;
-            case GUIDE_BUTTON:
-                return !from.guide && to.guide;
-            case UNKNOWN:
-                return !from.unknown && to.unknown;
-        }
-        return false;
+        return (releasedMask & button.getMask()) != 0;
     }
 }
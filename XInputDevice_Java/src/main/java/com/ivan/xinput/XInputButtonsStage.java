@@ -0,0 +1,37 @@
+package com.ivan.xinput;
+
+import com.ivan.xinput.pipeline.XInputStage;
+
+/**
+ * Base class for pipeline stages that change which buttons are pressed, such as
+ * {@link com.ivan.xinput.pipeline.XInputRemapStage}.
+ * <p>
+ * The button state of a device can only be changed by the device itself or by subclasses of this class, through
+ * {@link #setButtonMask(XInputComponents, int)}. Applications reading the components cannot modify the buttons.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public abstract class XInputButtonsStage implements XInputStage {
+    @Override
+    public boolean isNormalizing() {
+        return false;
+    }
+
+    @Override
+    public boolean isContinuous() {
+        return false;
+    }
+
+    /**
+     * Sets the state of all buttons of the components from a bit mask, and recomputes the D-Pad axis from the new state of
+     * the D-Pad buttons.
+     *
+     * @param components the components being processed
+     * @param mask the bit mask of the pressed buttons (see {@link XInputButtons#getMask()})
+     */
+    protected static void setButtonMask(final XInputComponents components, final int mask) {
+        final XInputButtons buttons = components.getButtons();
+        buttons.setMask(mask);
+        components.getAxes().dpad = XInputAxes.dpadFromButtons(buttons.up, buttons.down, buttons.left, buttons.right);
+    }
+}
@@ -1,13 +1,24 @@
 package com.ivan.xinput;
 
+import com.ivan.xinput.enums.XInputAxis;
+import com.ivan.xinput.enums.XInputButton;
+
 /**
  * Contains all components for an XInput controller.
  *
  * @author Ivan "StrikerX3" Oliveira
  */
 public class XInputComponents {
+    /**
+     * The shift of the axis bits in the {@link #getChangedMask() changed mask}.
+     */
+    public static final int AXES_SHIFT = 16;
+
     private final XInputButtons buttons;
     private final XInputAxes axes;
+    private long timestamp;
+    private int changedMask;
+    private long generation;
 
     protected XInputComponents() {
         buttons = new XInputButtons();
@@ -32,12 +43,70 @@ public class XInputComponents {
         return axes;
     }
 
+    /**
+     * Returns the {@link System#nanoTime()} of the poll that last updated the components. The timestamp is updated on every
+     * successful poll, even when the state has not changed, and can be used to measure input latency or to order events
+     * from different devices.
+     *
+     * @return the timestamp of the last successful poll, or 0 if the device was never polled successfully
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Sets the timestamp of the poll that last updated the components.
+     *
+     * @param timestamp the {@link System#nanoTime()} of the poll
+     */
+    protected void setTimestamp(final long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Returns the bit mask of the buttons and axes that changed in the last poll. The low 16 bits hold the
+     * {@link XInputButton#getMask() masks} of the buttons that were pressed or released, and bit
+     * <code>AXES_SHIFT + n</code> is set if the axis whose {@link XInputAxis#ordinal() ordinal} is <code>n</code> changed.
+     * The mask is zero if the last poll did not change the state.
+     *
+     * @return the bit mask of the buttons and axes that changed in the last poll
+     */
+    public int getChangedMask() {
+        return changedMask;
+    }
+
+    /**
+     * Returns the generation of the state, which is incremented every time a poll changes any button or axis. Polls that
+     * read the same values, including polls that report a new packet number with values the pipeline maps to the same
+     * state, leave the generation untouched. A consumer can remember the generation it last processed and skip its work
+     * while the generation stays the same.
+     *
+     * @return the generation of the state
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Sets the changes made by the last poll, incrementing the generation if anything changed.
+     *
+     * @param changedMask the bit mask of the buttons and axes that changed
+     * @param lastGeneration the generation of the state before the poll
+     */
+    protected void setChanged(final int changedMask, final long lastGeneration) {
+        this.changedMask = changedMask;
+        generation = changedMask != 0 ? lastGeneration + 1 : lastGeneration;
+    }
+
     /**
      * Resets the components to their default values.
      */
     protected void reset() {
         buttons.reset();
         axes.reset();
+        timestamp = 0;
+        changedMask = 0;
+        generation = 0;
     }
 
     /**
@@ -48,5 +117,8 @@ public class XInputComponents {
     protected void copy(final XInputComponents components) {
         buttons.copy(components.getButtons());
         axes.copy(components.getAxes());
+        timestamp = components.timestamp;
+        changedMask = components.changedMask;
+        generation = components.generation;
     }
 }
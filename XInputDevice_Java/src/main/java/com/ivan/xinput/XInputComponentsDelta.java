@@ -6,15 +6,57 @@ package com.ivan.xinput;
  * @author Ivan "StrikerX3" Oliveira
  */
 public class XInputComponentsDelta {
+    private XInputComponents comps;
     private final XInputButtonsDelta buttonsDelta;
     private final XInputAxesDelta axesDelta;
 
     protected XInputComponentsDelta(final XInputComponents lastComps, final XInputComponents comps) {
         super();
+        this.comps = comps;
         buttonsDelta = new XInputButtonsDelta(lastComps.getButtons(), comps.getButtons());
         axesDelta = new XInputAxesDelta(lastComps.getAxes(), comps.getAxes());
     }
 
+    /**
+     * Points the delta to a new pair of components, for when the device swaps its components instead of copying them.
+     *
+     * @param lastComps the components of the previous poll
+     * @param comps the components of the last poll
+     */
+    protected void setComponents(final XInputComponents lastComps, final XInputComponents comps) {
+        this.comps = comps;
+        buttonsDelta.setButtons(lastComps.getButtons(), comps.getButtons());
+        axesDelta.setAxes(lastComps.getAxes(), comps.getAxes());
+    }
+
+    /**
+     * Recomputes the delta after the components have been updated.
+     */
+    protected void update() {
+        buttonsDelta.update();
+        axesDelta.update();
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} of the poll that produced this delta.
+     *
+     * @return the timestamp of the last successful poll
+     * @see XInputComponents#getTimestamp()
+     */
+    public long getTimestamp() {
+        return comps.getTimestamp();
+    }
+
+    /**
+     * Returns the bit mask of the buttons and axes that changed between the two polls, laid out as described in
+     * {@link XInputComponents#getChangedMask()}.
+     *
+     * @return the bit mask of the buttons and axes that changed
+     */
+    public int getChangedMask() {
+        return buttonsDelta.getChangedMask() | axesDelta.getChangedMask() << XInputComponents.AXES_SHIFT;
+    }
+
     /**
      * Returns the delta of the buttons.
      *
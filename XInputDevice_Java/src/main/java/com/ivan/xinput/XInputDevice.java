@@ -3,81 +3,154 @@ package com.ivan.xinput;
 import static com.ivan.xinput.natives.XInputConstants.ERROR_DEVICE_NOT_CONNECTED;
 import static com.ivan.xinput.natives.XInputConstants.ERROR_SUCCESS;
 import static com.ivan.xinput.natives.XInputConstants.MAX_PLAYERS;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_A;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_B;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_BACK;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_DPAD_DOWN;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_DPAD_LEFT;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_DPAD_RIGHT;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_DPAD_UP;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_GUIDE_BUTTON;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_LEFT_SHOULDER;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_LEFT_THUMB;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_RIGHT_SHOULDER;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_RIGHT_THUMB;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_START;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_UNKNOWN;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_X;
-import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_Y;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_STATE_SIZE;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_STATE_SLOT_SIZE;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.LinkedList;
-import java.util.List;
-
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import com.ivan.xinput.XInputListenerDispatcher.AxisRegistration;
+import com.ivan.xinput.XInputListenerDispatcher.ListenerRegistration;
+import com.ivan.xinput.XInputListenerDispatcher.StateRegistration;
+import com.ivan.xinput.backend.XInputBackend;
+import com.ivan.xinput.backend.XInputBackends;
+import com.ivan.xinput.enums.XInputAxis;
 import com.ivan.xinput.enums.XInputButton;
 import com.ivan.xinput.exceptions.XInputNotLoadedException;
+import com.ivan.xinput.listener.XInputAxisListener;
 import com.ivan.xinput.listener.XInputDeviceListener;
-import com.ivan.xinput.natives.XInputNatives;
+import com.ivan.xinput.listener.XInputStateListener;
+import com.ivan.xinput.pipeline.XInputPipeline;
 
 /**
  * Represents all XInput devices registered in the system.
  * Use the {@link #getAllDevices()} or {@link #getDeviceFor(int)} methods to start using the devices.
+ * <p>
+ * The devices access XInput through the {@link XInputBackend} selected by {@link XInputBackends}. The devices are created
+ * the first time they are requested, at which point the backend can no longer be changed. Devices are reported as
+ * disconnected until they are polled for the first time.
+ * <p>
+ * Querying a disconnected device is much more expensive than querying a connected one, so {@link #pollAll()} and
+ * {@link XInputPoller} probe disconnected devices on an exponential backoff schedule (see
+ * {@link #setDisconnectedProbeInterval(long, long, TimeUnit)}), while connected devices are polled every time.
  *
  * @author Ivan "StrikerX3" Oliveira
  * @see XInputComponents
  * @see XInputComponentsDelta
  */
 public class XInputDevice {
+    /**
+     * Subscription mask bit for the {@link XInputDeviceListener#connected() connected} and
+     * {@link XInputDeviceListener#disconnected() disconnected} events. The bits below it are the
+     * {@link XInputButton#getMask() masks} of the buttons.
+     */
+    public static final int LISTEN_CONNECTION = 1 << 16;
+    /**
+     * Subscription mask for the events of all buttons.
+     */
+    public static final int LISTEN_ALL_BUTTONS = 0xffff;
+    /**
+     * Subscription mask for all events.
+     */
+    public static final int LISTEN_ALL = LISTEN_ALL_BUTTONS | LISTEN_CONNECTION;
+
     protected final int playerNum;
+    protected final XInputBackend backend;
     private final ByteBuffer buffer;// Contains the XINPUT_STATE struct
-    private final XInputComponents lastComponents;
-    private final XInputComponents components;
+    private final XInputStateView stateView;
+    private XInputComponents lastComponents;// swapped with components on every change
+    private XInputComponents components;
     private final XInputComponentsDelta delta;
+    private final XInputStatePublisher publisher;
 
     private boolean lastConnected;
     private boolean connected;
 
-    private final List<XInputDeviceListener> listeners;
+    private int packetNumber;// dwPacketNumber of the last decoded state
+    private boolean packetValid;// whether packetNumber refers to the current connection
+    private XInputPipeline packetPipeline;// the pipeline that processed the last state
+    private volatile XInputPipeline pipeline;// null to use the default pipeline
+    private boolean changed;
 
-    private static final XInputDevice[] DEVICES;
+    private long packedLow;// XInputPackedState words of the last decoded state
+    private long packedHigh;
+    private long timestamp;// System.nanoTime() of the poll that decoded the last state
+    private XInputPackedState packedState;// created on demand
 
-    private static XInputStateReader stateReader = XInputStatePreProcessedReader.INSTANCE;
+    private long probeInterval;// 0 while connected
+    private long nextProbe;
 
-    static {
-        XInputDevice[] devices;
-        if (XInputNatives.isLoaded()) {
-            devices = new XInputDevice[MAX_PLAYERS];
-            for (int i = 0; i < MAX_PLAYERS; i++) {
-                devices[i] = new XInputDevice(i);
+    private final XInputListenerDispatcher dispatcher;
+    private volatile XInputEventQueue eventQueue;
+    private volatile XInputAxisHistory axisHistory;
+
+    private static volatile XInputPipeline defaultPipeline = XInputPipeline.NORMALIZED;
+
+    private static final int AXIS_COUNT = XInputAxis.values().length;
+
+    private static volatile long probeMinInterval = TimeUnit.MILLISECONDS.toNanos(250);
+    private static volatile long probeMaxInterval = TimeUnit.SECONDS.toNanos(2);
+
+    /**
+     * Lazily creates the devices on first use, so that the backend can be configured beforehand.
+     */
+    private static final class Holder {
+        static final XInputDevice[] DEVICES;
+        static final ByteBuffer STATES = newStatesBuffer();// Contains the state slots of all devices
+
+        static {
+            final XInputBackend backend = XInputBackends.getBackend();
+            XInputDevice[] devices;
+            if (backend.isLoaded()) {
+                devices = new XInputDevice[MAX_PLAYERS];
+                for (int i = 0; i < MAX_PLAYERS; i++) {
+                    devices[i] = new XInputDevice(i, backend, STATES);
+                }
+            } else {
+                devices = null;
             }
-        } else {
-            devices = null;
+            DEVICES = devices;
         }
-        DEVICES = devices;
     }
 
+    /**
+     * Creates a device that uses the backend selected by {@link XInputBackends} and reads its state into a buffer of its
+     * own, then polls it once.
+     *
+     * @param playerNum the player number
+     */
     protected XInputDevice(final int playerNum) {
+        this(playerNum, XInputBackends.getBackend(), newStatesBuffer());
+        poll();
+    }
+
+    /**
+     * Creates a device that reads its state into a region of a buffer shared by all devices.
+     *
+     * @param playerNum the player number
+     * @param backend the XInput backend
+     * @param states the buffer created by {@link #newStatesBuffer()} holding the state slots of all devices
+     */
+    protected XInputDevice(final int playerNum, final XInputBackend backend, final ByteBuffer states) {
         this.playerNum = playerNum;
-        buffer = newBuffer(16);// sizeof(XINPUT_STATE)
+        this.backend = backend;
+        buffer = stateSlice(states, playerNum);
+        stateView = new XInputStateView(buffer);
 
         lastComponents = new XInputComponents();
         components = new XInputComponents();
         delta = new XInputComponentsDelta(lastComponents, components);
+        publisher = new XInputStatePublisher();
+        publisher.publish(false, 0L, 0L, 0, 0L, components.getAxes());
 
-        listeners = new LinkedList<XInputDeviceListener>();
+        dispatcher = new XInputListenerDispatcher(this);
 
-        poll();
+        nextProbe = System.nanoTime();
     }
 
     /**
@@ -86,7 +159,7 @@ public class XInputDevice {
      * @return <code>true</code> if the XInput devices are available, <code>false</code> if not
      */
     public static boolean isAvailable() {
-        return DEVICES != null;
+        return Holder.DEVICES != null;
     }
 
     /**
@@ -97,7 +170,7 @@ public class XInputDevice {
      */
     public static XInputDevice[] getAllDevices() throws XInputNotLoadedException {
         checkLibraryReady();
-        return DEVICES.clone();
+        return Holder.DEVICES.clone();
     }
 
     /**
@@ -112,7 +185,7 @@ public class XInputDevice {
         if (playerNum < 0 || playerNum >= MAX_PLAYERS) {
             throw new IllegalArgumentException("Invalid player number: " + playerNum + ". Must be between 0 and " + (MAX_PLAYERS - 1));
         }
-        return DEVICES[playerNum];
+        return Holder.DEVICES[playerNum];
     }
 
     /**
@@ -120,25 +193,93 @@ public class XInputDevice {
      * values, the fields {@code lx}, {@code ly}, {@code rx}, {@code ry}, {@code lt} and {@code rt} in {@code XInputAxes}
      * will be filled with non-zero {@code float} values ranging from -1 to 1 for the thumbsticks or 0 to 1 for the triggers,
      * based on the raw values. If disabled, only the raw values will be filled. By default, the float values are calculated.
+     * <p>
+     * This selects the default pipeline ({@link XInputPipeline#NORMALIZED} or {@link XInputPipeline#RAW}) of the devices
+     * that do not have a pipeline of their own (see {@link #setPipeline(XInputPipeline)}).
      *
      * @param preprocess whether to preprocess data into the {@code XInputAxes}'s {@code float} fields ({@code true}) or
      * just use raw data ({@code false})
      */
     public static void setPreProcessData(final boolean preprocess) {
-        if (preprocess) {
-            stateReader = XInputStatePreProcessedReader.INSTANCE;
-        } else {
-            stateReader = XInputStateRawReader.INSTANCE;
+        defaultPipeline = preprocess ? XInputPipeline.NORMALIZED : XInputPipeline.RAW;
+    }
+
+    /**
+     * Sets the pipeline that processes the state of this device after it is decoded, replacing the default pipeline
+     * selected by {@link #setPreProcessData(boolean)}. The new pipeline is applied to the state on the next poll.
+     *
+     * @param pipeline the pipeline, or <code>null</code> to use the default pipeline
+     */
+    public void setPipeline(final XInputPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Returns the pipeline that processes the state of this device.
+     *
+     * @return the pipeline of this device, or the default pipeline if none was set
+     */
+    public XInputPipeline getPipeline() {
+        final XInputPipeline pipeline = this.pipeline;
+        return pipeline != null ? pipeline : defaultPipeline;
+    }
+
+    /**
+     * Sets the backoff schedule for probing disconnected devices in {@link #pollAll()} and {@link XInputPoller}. A device
+     * that is found disconnected is probed again after the minimum interval, which doubles after every failed probe up to
+     * the maximum interval. As soon as the device is found connected, it is polled every time again. Explicit calls to
+     * {@link #poll()} always query the device and do not advance the schedule, so an application polling a disconnected
+     * device every frame does not delay its probes. The default schedule is 250 ms up to 2 s.
+     *
+     * @param minInterval the interval before the first probe of a disconnected device, or 0 to probe disconnected devices
+     * every time
+     * @param maxInterval the maximum interval between probes
+     * @param unit the time unit of the intervals
+     * @throws IllegalArgumentException if the intervals are negative or the maximum is less than the minimum
+     */
+    public static void setDisconnectedProbeInterval(final long minInterval, final long maxInterval, final TimeUnit unit) {
+        if (minInterval < 0 || maxInterval < minInterval) {
+            throw new IllegalArgumentException("Invalid probe intervals: " + minInterval + ", " + maxInterval);
         }
+        probeMinInterval = unit.toNanos(minInterval);
+        probeMaxInterval = unit.toNanos(maxInterval);
     }
 
     /**
-     * Adds an event listener that will react to changes in the input.
+     * Adds an event listener that will react to changes in the input. Listeners may be added and removed from any thread,
+     * including from inside a callback; changes take effect on the next event.
      *
      * @param listener the listener
      */
     public void addListener(final XInputDeviceListener listener) {
-        listeners.add(listener);
+        addListener(listener, LISTEN_ALL);
+    }
+
+    /**
+     * Adds an event listener that will only be notified of the events in the given subscription mask, which combines the
+     * {@link XInputButton#getMask() masks} of the buttons with {@link #LISTEN_CONNECTION} for the connection events.
+     * Listeners are skipped entirely when none of the events they subscribed to happened.
+     *
+     * @param listener the listener
+     * @param mask the subscription mask
+     */
+    public void addListener(final XInputDeviceListener listener, final int mask) {
+        dispatcher.listeners.add(new ListenerRegistration(listener, mask));
+    }
+
+    /**
+     * Adds an event listener that will only be notified of changes in the given buttons, in addition to the connection
+     * events.
+     *
+     * @param listener the listener
+     * @param buttons the buttons the listener is interested in
+     */
+    public void addListener(final XInputDeviceListener listener, final Set<XInputButton> buttons) {
+        int mask = LISTEN_CONNECTION;
+        for (final XInputButton button : buttons) {
+            mask |= button.getMask();
+        }
+        addListener(listener, mask);
     }
 
     /**
@@ -147,7 +288,227 @@ public class XInputDevice {
      * @param listener the listener
      */
     public void removeListener(final XInputDeviceListener listener) {
-        listeners.remove(listener);
+        XInputListenerDispatcher.remove(dispatcher.listeners, listener);
+    }
+
+    /**
+     * Adds a listener that will be notified when any axis changes by more than the given threshold since the value last
+     * reported to the listener. Changes in the {@link XInputAxis#DPAD DPAD} axis are always reported.
+     * <p>
+     * The listener receives the normalized values of the axes, unless the {@link #getPipeline() pipeline} of the device
+     * {@link XInputPipeline#isNormalized() leaves them empty}, as {@link XInputPipeline#RAW} does. It then receives the raw
+     * values, and the threshold is in raw units.
+     *
+     * @param listener the listener
+     * @param threshold the minimum change of an axis to be reported, or 0 to report every change
+     * @throws IllegalArgumentException if the threshold is negative
+     */
+    public void addAxisListener(final XInputAxisListener listener, final float threshold) {
+        final float[] thresholds = new float[AXIS_COUNT];
+        Arrays.fill(thresholds, checkThreshold(threshold));
+        dispatcher.axisListeners.add(new AxisRegistration(listener, thresholds, (1 << AXIS_COUNT) - 1));
+    }
+
+    /**
+     * Adds a listener that will be notified when one of the given axes changes by more than its threshold since the value
+     * last reported to the listener. Changes in the {@link XInputAxis#DPAD DPAD} axis are always reported if it is included.
+     * The values and thresholds are normalized or raw as described in {@link #addAxisListener(XInputAxisListener, float)}.
+     *
+     * @param listener the listener
+     * @param thresholds the minimum change to be reported for each axis the listener is interested in
+     * @throws IllegalArgumentException if a threshold is negative
+     */
+    public void addAxisListener(final XInputAxisListener listener, final Map<XInputAxis, Float> thresholds) {
+        final float[] values = new float[AXIS_COUNT];
+        int mask = 0;
+        for (final Map.Entry<XInputAxis, Float> entry : thresholds.entrySet()) {
+            final int ordinal = entry.getKey().ordinal();
+            values[ordinal] = checkThreshold(entry.getValue());
+            mask |= 1 << ordinal;
+        }
+        dispatcher.axisListeners.add(new AxisRegistration(listener, values, mask));
+    }
+
+    /**
+     * Removes a registered axis listener.
+     *
+     * @param listener the listener
+     */
+    public void removeAxisListener(final XInputAxisListener listener) {
+        XInputListenerDispatcher.remove(dispatcher.axisListeners, listener);
+    }
+
+    /**
+     * Adds a listener that will be notified once per poll in which any button or axis changed.
+     *
+     * @param listener the listener
+     */
+    public void addStateListener(final XInputStateListener listener) {
+        dispatcher.stateListeners.add(new StateRegistration(listener));
+    }
+
+    /**
+     * Removes a registered state listener.
+     *
+     * @param listener the listener
+     */
+    public void removeStateListener(final XInputStateListener listener) {
+        XInputListenerDispatcher.remove(dispatcher.stateListeners, listener);
+    }
+
+    /**
+     * Sets the executor that runs the listeners of this device. By default, listeners run on the thread polling the
+     * device, which waits for them to return. With an executor, the poll only captures the events and hands them to the
+     * executor, so slow listeners do not delay the next poll. The events of the device are still delivered one at a time
+     * and in order, even if the executor runs tasks concurrently. This also holds across calls to this method: events
+     * captured before the executor was changed and not yet delivered are delivered first, possibly by the previous
+     * executor, before the new executor or the polling thread takes over.
+     * <p>
+     * Since the device keeps being polled while asynchronous listeners run, the {@link #getComponents() components} may
+     * already hold a newer state; use {@link #readSnapshot(XInputSnapshot)} to read the state from a listener.
+     *
+     * @param executor the executor, or <code>null</code> to run the listeners on the polling thread
+     */
+    public void setListenerExecutor(final Executor executor) {
+        dispatcher.setExecutor(executor);
+    }
+
+    /**
+     * Returns the executor that runs the listeners of this device.
+     *
+     * @return the executor, or <code>null</code> if the listeners run on the polling thread
+     */
+    public Executor getListenerExecutor() {
+        return dispatcher.getExecutor();
+    }
+
+    /**
+     * Returns the number of exceptions thrown by the listeners of this device. Exceptions and errors thrown by a listener
+     * are caught, so that they do not escape {@link #poll()}, stall the listener executor or keep the other listeners
+     * from receiving the event.
+     *
+     * @return the number of exceptions thrown by the listeners
+     */
+    public long getListenerErrorCount() {
+        return dispatcher.getErrorCount();
+    }
+
+    /**
+     * Returns the number of exceptions thrown by the given listener, which may be any kind of listener registered with
+     * this device.
+     *
+     * @param listener the listener
+     * @return the number of exceptions thrown by the listener
+     */
+    public long getListenerErrorCount(final Object listener) {
+        return dispatcher.getErrorCount(listener);
+    }
+
+    /**
+     * Returns the last exception thrown by a listener of this device.
+     *
+     * @return the last exception, or <code>null</code> if no listener has thrown an exception
+     */
+    public Throwable getLastListenerError() {
+        return dispatcher.getLastError();
+    }
+
+    private static float checkThreshold(final float threshold) {
+        if (!(threshold >= 0f)) {
+            throw new IllegalArgumentException("Invalid threshold: " + threshold);
+        }
+        return threshold;
+    }
+
+    /**
+     * Sets the queue that receives the events of this device, in addition to the listeners. The events are written to the
+     * queue while the device is polled and can be drained by another thread, so that slow consumers do not delay the
+     * polls. Several devices may share a queue as long as they are all polled from the same thread.
+     *
+     * @param queue the event queue, or <code>null</code> to stop queueing events
+     */
+    public void setEventQueue(final XInputEventQueue queue) {
+        eventQueue = queue;
+    }
+
+    /**
+     * Returns the queue that receives the events of this device.
+     *
+     * @return the event queue, or <code>null</code> if events are not queued
+     */
+    public XInputEventQueue getEventQueue() {
+        return eventQueue;
+    }
+
+    /**
+     * Sets the history that records the axes of this device on every successful poll.
+     *
+     * @param history the axis history, or <code>null</code> to stop recording
+     */
+    public void setAxisHistory(final XInputAxisHistory history) {
+        axisHistory = history;
+    }
+
+    /**
+     * Returns the history that records the axes of this device.
+     *
+     * @return the axis history, or <code>null</code> if the axes are not recorded
+     */
+    public XInputAxisHistory getAxisHistory() {
+        return axisHistory;
+    }
+
+    /**
+     * Reads input from all devices with a single call to the backend, then updates the components and fires the listener
+     * events of each device. This is cheaper than calling {@link #poll()} on every device.
+     * <p>
+     * The devices share the buffer used by this method, so all devices must be polled from the same thread.
+     *
+     * @return the number of connected devices
+     * @throws XInputNotLoadedException if the native library failed to load
+     * @throws IllegalStateException if there is an error trying to read the state of a device
+     */
+    public static int pollAll() throws XInputNotLoadedException {
+        checkLibraryReady();
+        return pollAll(Holder.DEVICES, Holder.STATES);
+    }
+
+    /**
+     * Reads input from the specified devices, which must be all devices sharing the given state buffer, ordered by player
+     * number.
+     *
+     * @param devices the devices to poll
+     * @param states the state buffer shared by the devices
+     * @return the number of connected devices
+     * @throws IllegalStateException if there is an error trying to read the state of a device
+     */
+    protected static int pollAll(final XInputDevice[] devices, final ByteBuffer states) {
+        final long now = System.nanoTime();
+        int due = 0;
+        for (int i = 0; i < devices.length; i++) {
+            if (devices[i].isPollDue(now)) {
+                due |= 1 << i;
+            }
+        }
+
+        // the disconnected devices that are backing off are left out of the call
+        if (due != 0) {
+            devices[0].backend.pollDevices(due, states);
+            final long timestamp = System.nanoTime();
+            while (due != 0) {
+                final int i = Integer.numberOfTrailingZeros(due);
+                due &= due - 1;
+                devices[i].update(states.getInt(i * XINPUT_STATE_SLOT_SIZE), timestamp, true);
+            }
+        }
+
+        int connected = 0;
+        for (final XInputDevice device : devices) {
+            if (device.connected) {
+                connected++;
+            }
+        }
+        return connected;
     }
 
     /**
@@ -157,39 +518,134 @@ public class XInputDevice {
      * @throws IllegalStateException if there is an error trying to read the device state
      */
     public boolean poll() {
-        if (!checkReturnCode(XInputNatives.pollDevice(playerNum, buffer))) {
+        return poll(false);
+    }
+
+    private boolean poll(final boolean scheduled) {
+        final int ret = backend.pollDevice(playerNum, buffer);
+        return update(ret, System.nanoTime(), scheduled);
+    }
+
+    /**
+     * Polls the device if it is connected or if a disconnected device is due for a probe.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return <code>false</code> if the device is not connected
+     * @throws IllegalStateException if there is an error trying to read the device state
+     */
+    boolean pollIfDue(final long now) {
+        return isPollDue(now) ? poll(true) : false;
+    }
+
+    private boolean isPollDue(final long now) {
+        return connected || now - nextProbe >= 0;
+    }
+
+    /**
+     * Updates the components from the state read into the buffer.
+     *
+     * @param ret the return code of the read
+     * @param timestamp the {@link System#nanoTime()} at which the state was read
+     * @param scheduled <code>true</code> if the read was a scheduled probe, which advances the backoff schedule when the
+     *        device is disconnected
+     * @return <code>false</code> if the device is not connected
+     * @throws IllegalStateException if there is an error trying to read the device state
+     */
+    private boolean update(final int ret, final long timestamp, final boolean scheduled) {
+        if (!checkReturnCode(ret, timestamp)) {
+            packetValid = false;
+            changed = false;
+            if (lastConnected) {
+                publisher.publish(false, packedLow, packedHigh, packetNumber, components.getGeneration(), components.getAxes());
+            }
+
+            // back off from probing the empty slot; explicit polls leave the schedule alone
+            if (scheduled) {
+                final long interval = probeInterval == 0 ? probeMinInterval : Math.min(probeInterval * 2, probeMaxInterval);
+                probeInterval = interval;
+                nextProbe = System.nanoTime() + interval;
+            }
             return false;
         }
-        setConnected(true);
-
-        lastComponents.copy(components);
+        setConnected(true, timestamp);
+        probeInterval = 0;
+
+        // XInput only increments the packet number when the state changes, so the last decoded state is still current,
+        // unless the pipeline has filters whose output changes over time
+        final int packetNumber = buffer.getInt(XInputStateView.PACKET_NUMBER);
+        final XInputPipeline pipeline = getPipeline();
+        if (packetValid && packetNumber == this.packetNumber && pipeline == packetPipeline && !pipeline.isContinuous()) {
+            if (changed) {
+                // the state is the same as in the last poll, so there is no delta anymore
+                components.setChanged(0, components.getGeneration());
+                lastComponents.copy(components);
+                delta.update();
+                changed = false;
+            }
+            components.setTimestamp(timestamp);
+            record(timestamp);
+            return true;
+        }
+        this.packetNumber = packetNumber;
+        packetValid = true;
+        packetPipeline = pipeline;
+        changed = true;
+
+        // the components of the previous poll become the last components, and the older ones are overwritten by decode
+        final XInputComponents previous = components;
+        components = lastComponents;
+        lastComponents = previous;
+        delta.setComponents(lastComponents, components);
+
+        components.setTimestamp(timestamp);
+        decode(buffer, components);
+        pipeline.process(components);
+        delta.update();
+        components.setChanged(delta.getChangedMask(), lastComponents.getGeneration());
 
         final XInputAxes axes = components.getAxes();
-        stateReader.read(buffer, components);
+        this.timestamp = timestamp;
+        packedLow = XInputPackedState.packLow(components.getButtons().getMask(), axes.ltRaw, axes.rtRaw, axes.lxRaw, axes.lyRaw);
+        packedHigh = XInputPackedState.packHigh(axes.rxRaw, axes.ryRaw);
+        packedState = null;
+        publisher.publish(true, packedLow, packedHigh, packetNumber, components.getGeneration(), axes);
+        record(timestamp);
 
         processDelta();
         return true;
     }
 
+    private void record(final long timestamp) {
+        final XInputAxisHistory history = axisHistory;
+        if (history != null) {
+            history.record(components.getAxes(), timestamp);
+        }
+    }
+
     protected boolean checkReturnCode(final int ret) {
+        return checkReturnCode(ret, System.nanoTime());
+    }
+
+    private boolean checkReturnCode(final int ret, final long timestamp) {
         if (ret == ERROR_DEVICE_NOT_CONNECTED) {
-            setConnected(false);
+            setConnected(false, timestamp);
             return false;
         }
         if (ret != ERROR_SUCCESS) {
-            setConnected(false);
+            setConnected(false, timestamp);
             throw new IllegalStateException("Could not read controller state: 0x" + Integer.toHexString(ret));
         }
         return true;
     }
 
     protected boolean checkReturnCode(final int ret, final int... validRetCodes) {
+        final long timestamp = System.nanoTime();
         if (ret == ERROR_DEVICE_NOT_CONNECTED) {
-            setConnected(false);
+            setConnected(false, timestamp);
             return false;
         }
         if (ret != ERROR_SUCCESS) {
-            setConnected(false);
+            setConnected(false, timestamp);
             for (final int validRet : validRetCodes) {
                 if (ret == validRet) {
                     return false;
@@ -200,29 +656,60 @@ public class XInputDevice {
         return true;
     }
 
-    private void setConnected(final boolean state) {
+    private void setConnected(final boolean state, final long timestamp) {
+        if (!state) {
+            // the next state must be decoded even if it has the same packet number, including after a read error
+            packetValid = false;
+        }
         lastConnected = connected;
         connected = state;
-        for (final XInputDeviceListener listener : listeners) {
-            if (connected && !lastConnected) {
-                listener.connected();
-            } else if (!connected && lastConnected) {
-                listener.disconnected();
+        if (connected != lastConnected) {
+            final XInputEventQueue queue = eventQueue;
+            if (queue != null) {
+                queue.offer(playerNum, connected ? XInputEventQueue.CONNECTED : XInputEventQueue.DISCONNECTED, 0, 0f, timestamp);
             }
+            dispatcher.connectionChanged(connected, timestamp);
         }
     }
 
     private void processDelta() {
         final XInputButtonsDelta buttons = delta.getButtons();
-        for (final XInputDeviceListener listener : listeners) {
-            for (final XInputButton button : XInputButton.values()) {
-                if (buttons.isPressed(button)) {
-                    listener.buttonChanged(button, true);
-                } else if (buttons.isReleased(button)) {
-                    listener.buttonChanged(button, false);
-                }
+        final int changedMask = buttons.getChangedMask();
+        final int pressedMask = buttons.getPressedMask();
+
+        // pipelines without normalization leave the normalized values at zero, so the raw values are reported instead
+        final boolean normalized = packetPipeline.isNormalized();
+
+        final XInputEventQueue queue = eventQueue;
+        if (queue != null) {
+            queueEvents(queue, changedMask, pressedMask, normalized);
+        }
+
+        dispatcher.stateChanged(pressedMask, buttons.getReleasedMask(), delta.getAxes().getChangedMask(),
+            components.getAxes(), normalized, timestamp);
+    }
+
+    private void queueEvents(final XInputEventQueue queue, final int changedMask, final int pressedMask,
+        final boolean normalized) {
+        int bits = changedMask;
+        while (bits != 0) {
+            final int bit = Integer.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            if ((pressedMask & (1 << bit)) != 0) {
+                queue.offer(playerNum, XInputEventQueue.BUTTON_PRESSED, bit, 1f, timestamp);
+            } else {
+                queue.offer(playerNum, XInputEventQueue.BUTTON_RELEASED, bit, 0f, timestamp);
             }
         }
+
+        final XInputAxes axes = components.getAxes();
+        bits = delta.getAxes().getChangedMask();
+        while (bits != 0) {
+            final int ordinal = Integer.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            queue.offer(playerNum, XInputEventQueue.AXIS_CHANGED, ordinal, axes.get(XInputAxis.fromOrdinal(ordinal), normalized),
+                timestamp);
+        }
     }
 
     /**
@@ -240,11 +727,16 @@ public class XInputDevice {
         if (rightMotor < 0 || rightMotor > 65535) {
             throw new IllegalArgumentException("Right motor speed out of range (0..65535): " + rightMotor);
         }
-        return XInputNatives.setVibration(playerNum, leftMotor, rightMotor) == ERROR_SUCCESS;
+        return backend.setVibration(playerNum, leftMotor, rightMotor) == ERROR_SUCCESS;
     }
 
     /**
      * Returns the state of the XInput controller components before the last poll.
+     * <p>
+     * The device keeps two instances of the components and swaps them when a poll reads a new state, rather than copying
+     * one into the other, so this method and {@link #getComponents()} may return a different instance after each poll. The
+     * returned instance is owned by the device: only hold on to it until the next poll, and call this method again
+     * afterwards.
      *
      * @return the state of the XInput controller components before the last poll.
      */
@@ -253,7 +745,9 @@ public class XInputDevice {
     }
 
     /**
-     * Returns the state of the XInput controller components at the last poll.
+     * Returns the state of the XInput controller components at the last poll. The components are owned by the device and
+     * are reused by {@link #poll()}: only hold on to them until the next poll (see {@link #getLastComponents()}), and use
+     * {@link #readSnapshot(XInputSnapshot)} to read the state from other threads.
      *
      * @return the state of the XInput controller components at the last poll.
      */
@@ -270,6 +764,67 @@ public class XInputDevice {
         return delta;
     }
 
+    /**
+     * Determines whether the last poll read a new state from the device. When the packet number reported by XInput does
+     * not change between two polls, the poll skips decoding and the components and listeners are left untouched, unless the
+     * pipeline of the device {@link XInputPipeline#isContinuous() must run on every poll}.
+     *
+     * @return <code>true</code> if the last poll read a new state, <code>false</code> if the state did not change or the
+     * device is not connected
+     */
+    public boolean isChanged() {
+        return changed;
+    }
+
+    /**
+     * Returns the packet number of the last state read from the device. XInput increments the packet number whenever the
+     * state of the device changes.
+     *
+     * @return the packet number of the last state read from the device
+     */
+    public int getPacketNumber() {
+        return packetNumber;
+    }
+
+    /**
+     * Returns the state of the device at the last poll in packed form. A new instance is only created when the state has
+     * changed since the last call.
+     *
+     * @return the packed state of the device at the last poll
+     */
+    public XInputPackedState getPackedState() {
+        XInputPackedState state = packedState;
+        if (state == null) {
+            state = new XInputPackedState(packedLow, packedHigh, packetNumber, timestamp);
+            packedState = state;
+        }
+        return state;
+    }
+
+    /**
+     * Returns a view of the raw state read by the last poll, which reads the fields straight from the buffer the device is
+     * polled into. The view must only be read from the thread polling the device.
+     *
+     * @return the raw state view of the device
+     */
+    public XInputStateView getStateView() {
+        return stateView;
+    }
+
+    /**
+     * Reads a consistent copy of the state of the device at the last poll into the given snapshot. Unlike the components
+     * returned by {@link #getComponents()}, which are updated in place by {@link #poll()}, this method is safe to call from
+     * any thread while another thread is polling the device, and never mixes values from two different polls. It does not
+     * lock or allocate memory.
+     *
+     * @param snapshot the snapshot to fill in
+     * @return the given snapshot
+     */
+    public XInputSnapshot readSnapshot(final XInputSnapshot snapshot) {
+        publisher.read(snapshot);
+        return snapshot;
+    }
+
     /**
      * Returns a boolean indicating whether this device is connected.
      *
@@ -289,13 +844,14 @@ public class XInputDevice {
     }
 
     /**
-     * Checks if the native library is loaded and ready for use.
+     * Checks if the XInput backend is loaded and ready for use.
      *
-     * @throws XInputNotLoadedException if the native library is not loaded
+     * @throws XInputNotLoadedException if the XInput backend is not loaded
      */
     private static void checkLibraryReady() throws XInputNotLoadedException {
-        if (!XInputNatives.isLoaded()) {
-            throw new XInputNotLoadedException("Native library failed to load", XInputNatives.getLoadError());
+        final XInputBackend backend = XInputBackends.getBackend();
+        if (!backend.isLoaded()) {
+            throw new XInputNotLoadedException("Native library failed to load", backend.getLoadError());
         }
     }
 
@@ -311,96 +867,69 @@ public class XInputDevice {
         return buffer;
     }
 
-    private static interface XInputStateReader {
-        void read(final ByteBuffer buffer, final XInputComponents components);
-    }
-
-    private static class XInputStateRawReader implements XInputStateReader {
-        public static final XInputStateRawReader INSTANCE = new XInputStateRawReader();
-
-        protected XInputStateRawReader() {}
-
-        @Override
-        public void read(final ByteBuffer buffer, final XInputComponents components) {
-            // typedef struct _XINPUT_STATE
-            // {
-            //     DWORD                               dwPacketNumber;
-            //     XINPUT_GAMEPAD                      Gamepad;
-            // } XINPUT_STATE, *PXINPUT_STATE;
-
-            // typedef struct _XINPUT_GAMEPAD
-            // {
-            //     WORD                                wButtons;
-            //     BYTE                                bLeftTrigger;
-            //     BYTE                                bRightTrigger;
-            //     SHORT                               sThumbLX;
-            //     SHORT                               sThumbLY;
-            //     SHORT                               sThumbRX;
-            //     SHORT                               sThumbRY;
-            // } XINPUT_GAMEPAD, *PXINPUT_GAMEPAD;
-
-            /*int packetNumber = */buffer.getInt();// can be safely ignored
-            final short btns = buffer.getShort();
-            final byte leftTrigger = buffer.get();
-            final byte rightTrigger = buffer.get();
-            final short thumbLX = buffer.getShort();
-            final short thumbLY = buffer.getShort();
-            final short thumbRX = buffer.getShort();
-            final short thumbRY = buffer.getShort();
-            buffer.flip();
-
-            final boolean up = (btns & XINPUT_GAMEPAD_DPAD_UP) != 0;
-            final boolean down = (btns & XINPUT_GAMEPAD_DPAD_DOWN) != 0;
-            final boolean left = (btns & XINPUT_GAMEPAD_DPAD_LEFT) != 0;
-            final boolean right = (btns & XINPUT_GAMEPAD_DPAD_RIGHT) != 0;
-
-            final XInputAxes axes = components.getAxes();
-            axes.lxRaw = thumbLX;
-            axes.lyRaw = thumbLY;
-            axes.rxRaw = thumbRX;
-            axes.ryRaw = thumbRY;
-            axes.ltRaw = leftTrigger & 0xff;
-            axes.rtRaw = rightTrigger & 0xff;
-            axes.lx = axes.ly = 0f;
-            axes.rx = axes.ry = 0f;
-            axes.lt = axes.rt = 0f;
-            axes.dpad = XInputAxes.dpadFromButtons(up, down, left, right);
-
-            final XInputButtons buttons = components.getButtons();
-            buttons.a = (btns & XINPUT_GAMEPAD_A) != 0;
-            buttons.b = (btns & XINPUT_GAMEPAD_B) != 0;
-            buttons.x = (btns & XINPUT_GAMEPAD_X) != 0;
-            buttons.y = (btns & XINPUT_GAMEPAD_Y) != 0;
-            buttons.back = (btns & XINPUT_GAMEPAD_BACK) != 0;
-            buttons.start = (btns & XINPUT_GAMEPAD_START) != 0;
-            buttons.lShoulder = (btns & XINPUT_GAMEPAD_LEFT_SHOULDER) != 0;
-            buttons.rShoulder = (btns & XINPUT_GAMEPAD_RIGHT_SHOULDER) != 0;
-            buttons.lThumb = (btns & XINPUT_GAMEPAD_LEFT_THUMB) != 0;
-            buttons.rThumb = (btns & XINPUT_GAMEPAD_RIGHT_THUMB) != 0;
-            buttons.guide = (btns & XINPUT_GAMEPAD_GUIDE_BUTTON) != 0;
-            buttons.unknown = (btns & XINPUT_GAMEPAD_UNKNOWN) != 0;
-            buttons.up = up;
-            buttons.down = down;
-            buttons.left = left;
-            buttons.right = right;
-        }
+    /**
+     * Creates a new direct ByteBuffer with room for the state slots of all players, as used by
+     * {@link XInputBackend#pollDevices(int, ByteBuffer)}.
+     *
+     * @return a direct ByteBuffer holding the state slots of all players
+     */
+    protected static ByteBuffer newStatesBuffer() {
+        return newBuffer(MAX_PLAYERS * XINPUT_STATE_SLOT_SIZE);
     }
 
-    private static class XInputStatePreProcessedReader extends XInputStateRawReader {
-        public static final XInputStatePreProcessedReader INSTANCE = new XInputStatePreProcessedReader();
+    /**
+     * Returns a view of the XINPUT_STATE struct of the specified player within a buffer created by
+     * {@link #newStatesBuffer()}.
+     *
+     * @param states the buffer holding the state slots of all players
+     * @param playerNum the player number
+     * @return a direct ByteBuffer sharing the XINPUT_STATE struct of the player
+     */
+    private static ByteBuffer stateSlice(final ByteBuffer states, final int playerNum) {
+        final int offset = playerNum * XINPUT_STATE_SLOT_SIZE + 4;
+        final ByteBuffer dup = states.duplicate();
+        dup.limit(offset + XINPUT_STATE_SIZE).position(offset);
+        return dup.slice().order(ByteOrder.nativeOrder());
+    }
 
-        protected XInputStatePreProcessedReader() {}
+    /**
+     * Decodes the raw state from the buffer into the components, leaving the normalized axis values at zero.
+     *
+     * @param buffer the buffer holding the XINPUT_STATE struct
+     * @param components the components to decode the state into
+     */
+    private static void decode(final ByteBuffer buffer, final XInputComponents components) {
+        // typedef struct _XINPUT_STATE
+        // {
+        //     DWORD                               dwPacketNumber;
+        //     XINPUT_GAMEPAD                      Gamepad;
+        // } XINPUT_STATE, *PXINPUT_STATE;
+
+        // typedef struct _XINPUT_GAMEPAD
+        // {
+        //     WORD                                wButtons;
+        //     BYTE                                bLeftTrigger;
+        //     BYTE                                bRightTrigger;
+        //     SHORT                               sThumbLX;
+        //     SHORT                               sThumbLY;
+        //     SHORT                               sThumbRX;
+        //     SHORT                               sThumbRY;
+        // } XINPUT_GAMEPAD, *PXINPUT_GAMEPAD;
+
+        // the packet number was already checked by the device before decoding
+        final XInputButtons buttons = components.getButtons();
+        buttons.setMask(buffer.getShort(XInputStateView.BUTTONS));
 
-        @Override
-        public void read(final ByteBuffer buffer, final XInputComponents components) {
-            super.read(buffer, components);
-            final XInputAxes axes = components.getAxes();
-            axes.lx = axes.lxRaw / 32768f;
-            axes.ly = axes.lyRaw / 32768f;
-            axes.rx = axes.rxRaw / 32768f;
-            axes.ry = axes.ryRaw / 32768f;
-            axes.lt = (axes.ltRaw & 0xff) / 255f;
-            axes.rt = (axes.rtRaw & 0xff) / 255f;
-        }
+        final XInputAxes axes = components.getAxes();
+        axes.lxRaw = buffer.getShort(XInputStateView.THUMB_LX);
+        axes.lyRaw = buffer.getShort(XInputStateView.THUMB_LY);
+        axes.rxRaw = buffer.getShort(XInputStateView.THUMB_RX);
+        axes.ryRaw = buffer.getShort(XInputStateView.THUMB_RY);
+        axes.ltRaw = buffer.get(XInputStateView.LEFT_TRIGGER) & 0xff;
+        axes.rtRaw = buffer.get(XInputStateView.RIGHT_TRIGGER) & 0xff;
+        axes.lx = axes.ly = 0f;
+        axes.rx = axes.ry = 0f;
+        axes.lt = axes.rt = 0f;
+        axes.dpad = XInputAxes.dpadFromButtons(buttons.up, buttons.down, buttons.left, buttons.right);
     }
 }
@@ -5,10 +5,11 @@ import static com.ivan.xinput.natives.XInputConstants.MAX_PLAYERS;
 
 import java.nio.ByteBuffer;
 
+import com.ivan.xinput.backend.XInputBackend;
+import com.ivan.xinput.backend.XInputBackends;
 import com.ivan.xinput.enums.XInputBatteryDeviceType;
 import com.ivan.xinput.exceptions.XInputNotLoadedException;
 import com.ivan.xinput.natives.XInputConstants;
-import com.ivan.xinput.natives.XInputNatives14;
 
 /**
  * Provides extended functionality available on XInput 1.4.
@@ -20,23 +21,41 @@ public class XInputDevice14 extends XInputDevice {
     private final ByteBuffer battBuffer; // Contains the XINPUT_BATTERY_INFORMATION struct
     private final ByteBuffer keysBuffer; // Contains the XINPUT_KEYSTROKE struct
 
-    private static final XInputDevice14[] DEVICES;
-
-    static {
-        XInputDevice14[] devices;
-        if (XInputNatives14.isLoaded()) {
-            devices = new XInputDevice14[MAX_PLAYERS];
-            for (int i = 0; i < MAX_PLAYERS; i++) {
-                devices[i] = new XInputDevice14(i);
+    /**
+     * Lazily creates the devices on first use, so that the backend can be configured beforehand.
+     */
+    private static final class Holder {
+        static final XInputDevice14[] DEVICES;
+        static final ByteBuffer STATES = newStatesBuffer();// Contains the state slots of all devices
+
+        static {
+            final XInputBackend backend = XInputBackends.getBackend();
+            XInputDevice14[] devices;
+            if (backend.isLoaded14()) {
+                devices = new XInputDevice14[MAX_PLAYERS];
+                for (int i = 0; i < MAX_PLAYERS; i++) {
+                    devices[i] = new XInputDevice14(i, backend, STATES);
+                }
+            } else {
+                devices = null;
             }
-        } else {
-            devices = null;
+            DEVICES = devices;
         }
-        DEVICES = devices;
     }
 
+    /**
+     * Creates a device that uses the backend selected by {@link XInputBackends} and reads its state into a buffer of its
+     * own, then polls it once.
+     *
+     * @param playerNum the player number
+     */
     protected XInputDevice14(final int playerNum) {
-        super(playerNum);
+        this(playerNum, XInputBackends.getBackend(), newStatesBuffer());
+        poll();
+    }
+
+    protected XInputDevice14(final int playerNum, final XInputBackend backend, final ByteBuffer states) {
+        super(playerNum, backend, states);
 
         capsBuffer = newBuffer(20); // sizeof(XINPUT_CAPABILITIES)
         battBuffer = newBuffer(2); // sizeof(XINPUT_BATTERY_INFORMATION)
@@ -49,7 +68,7 @@ public class XInputDevice14 extends XInputDevice {
      * @return <code>true</code> if the XInput devices are available, <code>false</code> if not
      */
     public static boolean isAvailable() {
-        return DEVICES != null;
+        return Holder.DEVICES != null;
     }
 
     /**
@@ -60,7 +79,7 @@ public class XInputDevice14 extends XInputDevice {
      */
     public static XInputDevice14[] getAllDevices() throws XInputNotLoadedException {
         checkLibraryReady();
-        return DEVICES.clone();
+        return Holder.DEVICES.clone();
     }
 
     /**
@@ -75,7 +94,22 @@ public class XInputDevice14 extends XInputDevice {
         if (playerNum < 0 || playerNum >= MAX_PLAYERS) {
             throw new IllegalArgumentException("Invalid player number: " + playerNum + ". Must be between 0 and " + (MAX_PLAYERS - 1));
         }
-        return DEVICES[playerNum];
+        return Holder.DEVICES[playerNum];
+    }
+
+    /**
+     * Reads input from all XInput 1.4 devices with a single call to the backend, then updates the components and fires
+     * the listener events of each device. This is cheaper than calling {@link #poll()} on every device.
+     * <p>
+     * The devices share the buffer used by this method, so all devices must be polled from the same thread.
+     *
+     * @return the number of connected devices
+     * @throws XInputNotLoadedException if the native library failed to load
+     * @throws IllegalStateException if there is an error trying to read the state of a device
+     */
+    public static int pollAll() throws XInputNotLoadedException {
+        checkLibraryReady();
+        return pollAll(Holder.DEVICES, Holder.STATES);
     }
 
     /**
@@ -87,7 +121,7 @@ public class XInputDevice14 extends XInputDevice {
      * force it to return neutral data and prevent sending data to the device
      */
     public static void setEnabled(final boolean enabled) {
-        XInputNatives14.setEnabled(enabled);
+        XInputBackends.getBackend().setEnabled(enabled);
     }
 
     /**
@@ -111,7 +145,7 @@ public class XInputDevice14 extends XInputDevice {
     }
 
     private XInputCapabilities getCapabilities(final int flags) {
-        if (!checkReturnCode(XInputNatives14.getCapabilities(playerNum, flags, capsBuffer))) {
+        if (!checkReturnCode(backend.getCapabilities(playerNum, flags, capsBuffer))) {
             return null;
         }
 
@@ -128,7 +162,7 @@ public class XInputDevice14 extends XInputDevice {
      * @throws IllegalStateException if there is an error trying to read the device state
      */
     public XInputBatteryInformation getBatteryInformation(final XInputBatteryDeviceType deviceType) {
-        if (!checkReturnCode(XInputNatives14.getBatteryInformation(playerNum, 0, battBuffer))) {
+        if (!checkReturnCode(backend.getBatteryInformation(playerNum, 0, battBuffer))) {
             return null;
         }
 
@@ -144,7 +178,7 @@ public class XInputDevice14 extends XInputDevice {
      * @return the next keystroke, or null if the device is not connected or there was no keystroke
      */
     public XInputKeystroke getKeystroke() {
-        final int ret = XInputNatives14.getKeystroke(playerNum, keysBuffer);
+        final int ret = backend.getKeystroke(playerNum, keysBuffer);
         if (!checkReturnCode(ret, ERROR_EMPTY) && ret == ERROR_EMPTY) {
             return null;
         }
@@ -155,13 +189,14 @@ public class XInputDevice14 extends XInputDevice {
     }
 
     /**
-     * Checks if the native library is loaded and ready for use.
+     * Checks if the XInput 1.4 backend is loaded and ready for use.
      *
-     * @throws XInputNotLoadedException if the native library is not loaded
+     * @throws XInputNotLoadedException if the XInput 1.4 backend is not loaded
      */
     private static void checkLibraryReady() throws XInputNotLoadedException {
-        if (!XInputNatives14.isLoaded()) {
-            throw new XInputNotLoadedException("Native library failed to load", XInputNatives14.getLoadError());
+        final XInputBackend backend = XInputBackends.getBackend();
+        if (!backend.isLoaded14()) {
+            throw new XInputNotLoadedException("Native library failed to load", backend.getLoadError14());
         }
     }
 }
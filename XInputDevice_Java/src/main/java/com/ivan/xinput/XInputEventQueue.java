@@ -0,0 +1,172 @@
+package com.ivan.xinput;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ivan.xinput.enums.XInputAxis;
+import com.ivan.xinput.enums.XInputButton;
+import com.ivan.xinput.listener.XInputEventHandler;
+
+/**
+ * A bounded, lock-free queue of input events, written by the thread polling the devices and read by one consumer thread.
+ * <p>
+ * Devices write events to the queue set with {@link XInputDevice#setEventQueue(XInputEventQueue)} while they are polled,
+ * so listeners running on other threads do not delay the next poll. Each event is encoded as two <code>long</code>s in a
+ * preallocated array, and neither side allocates or locks:
+ * <ul>
+ * <li>the first word holds the player number (bits 0-7), the event type (bits 8-15), the event code (bits 16-31) and the
+ * bits of the event value (bits 32-63)</li>
+ * <li>the second word holds the {@link System#nanoTime()} of the poll that produced the event</li>
+ * </ul>
+ * The queue has a single producer and a single consumer: all devices sharing a queue must be polled from the same thread,
+ * and {@link #drain(XInputEventHandler, int)} must not be called by more than one thread at a time. When the queue is
+ * full, new events are dropped and counted (see {@link #getDroppedCount()}).
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputEventQueue {
+    /**
+     * The device was connected. The code and value are zero.
+     */
+    public static final int CONNECTED = 0;
+    /**
+     * The device was disconnected. The code and value are zero.
+     */
+    public static final int DISCONNECTED = 1;
+    /**
+     * A button was pressed. The code is the {@link XInputButton#fromBit(int) bit} of the button and the value is 1.
+     */
+    public static final int BUTTON_PRESSED = 2;
+    /**
+     * A button was released. The code is the {@link XInputButton#fromBit(int) bit} of the button and the value is 0.
+     */
+    public static final int BUTTON_RELEASED = 3;
+    /**
+     * An axis changed. The code is the ordinal of the {@link XInputAxis} and the value is the new value of the axis, which
+     * is the raw value if the pipeline of the device is not {@link com.ivan.xinput.pipeline.XInputPipeline#isNormalized()
+     * normalized}.
+     */
+    public static final int AXIS_CHANGED = 4;
+
+    private final long[] events;
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong();// next event to read, written by the consumer
+    private final AtomicLong tail = new AtomicLong();// next event to write, written by the producer
+    private long cachedHead;// producer's view of the head, refreshed only when the queue looks full
+    private volatile long droppedCount;
+
+    /**
+     * Creates an event queue.
+     *
+     * @param capacity the maximum number of events in the queue, rounded up to a power of two
+     * @throws IllegalArgumentException if the capacity is not positive or too large
+     */
+    public XInputEventQueue(final int capacity) {
+        if (capacity <= 0 || capacity > 1 << 29) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        final int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        events = new long[size * 2];
+        mask = size - 1;
+    }
+
+    /**
+     * Adds an event to the queue. Must only be called by the thread polling the devices.
+     *
+     * @param playerNum the player number of the device
+     * @param type the event type
+     * @param code the event code
+     * @param value the event value
+     * @param timestamp the {@link System#nanoTime()} of the poll that produced the event
+     * @return <code>false</code> if the queue was full and the event was dropped
+     */
+    boolean offer(final int playerNum, final int type, final int code, final float value, final long timestamp) {
+        final long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.get();
+            if (t - cachedHead > mask) {
+                droppedCount++;
+                return false;
+            }
+        }
+        final int i = ((int) t & mask) << 1;
+        events[i] = (playerNum & 0xffL) | (type & 0xffL) << 8 | (code & 0xffffL) << 16
+            | (long) Float.floatToRawIntBits(value) << 32;
+        events[i + 1] = timestamp;
+        tail.lazySet(t + 1);// publishes the event words
+        return true;
+    }
+
+    /**
+     * Passes up to <code>max</code> queued events to the handler, in the order they were produced, and removes them from
+     * the queue. Must not be called by more than one thread at a time.
+     * <p>
+     * If the handler throws an exception, the exception is propagated and the events passed to the handler so far,
+     * including the one that failed, are removed from the queue; the remaining events are kept for the next drain.
+     *
+     * @param handler the handler that receives the events
+     * @param max the maximum number of events to drain
+     * @return the number of events drained
+     * @throws IllegalArgumentException if <code>max</code> is negative
+     */
+    public int drain(final XInputEventHandler handler, final int max) {
+        if (max < 0) {
+            throw new IllegalArgumentException("Invalid maximum: " + max);
+        }
+        final long h = head.get();
+        final int n = (int) Math.min(tail.get() - h, max);
+        int k = 0;
+        try {
+            while (k < n) {
+                final int i = ((int) (h + k) & mask) << 1;
+                final long word = events[i];
+                final long timestamp = events[i + 1];
+                k++;
+                handler.event((int) word & 0xff, (int) (word >>> 8) & 0xff, (int) (word >>> 16) & 0xffff,
+                    Float.intBitsToFloat((int) (word >>> 32)), timestamp);
+            }
+        } finally {
+            if (k > 0) {
+                head.lazySet(h + k);// releases the slots to the producer
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Passes all queued events to the handler. Must not be called by more than one thread at a time.
+     *
+     * @param handler the handler that receives the events
+     * @return the number of events drained
+     */
+    public int drain(final XInputEventHandler handler) {
+        return drain(handler, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the number of events in the queue. The value may be outdated as soon as it is returned.
+     *
+     * @return the number of events in the queue
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * Returns the maximum number of events in the queue.
+     *
+     * @return the capacity of the queue
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the number of events dropped because the queue was full.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+}
@@ -0,0 +1,204 @@
+package com.ivan.xinput;
+
+import com.ivan.xinput.enums.XInputButton;
+import com.ivan.xinput.listener.SimpleXInputDeviceListener;
+import com.ivan.xinput.listener.XInputDeviceListener;
+import com.ivan.xinput.listener.XInputStateListener;
+
+/**
+ * Accumulates the button changes of a device across any number of polls, for consumers that run less often than the
+ * device is polled, such as a game loop running at 60 Hz while a {@link XInputPoller} polls at 1000 Hz.
+ * <p>
+ * {@link XInputComponentsDelta} only describes the last two polls, so a button pressed and released between two frames
+ * would be missed. The accumulator is attached to a device with {@link #XInputFrameAccumulator(XInputDevice)}, and the
+ * consumer calls {@link #consume()} once per frame, which takes all changes since the previous call. The getters then
+ * describe that frame until the next call to {@link #consume()}:
+ *
+ * <pre>
+ * XInputFrameAccumulator frame = new XInputFrameAccumulator(device);
+ * // once per frame:
+ * frame.consume();
+ * if (frame.wasPressed(XInputButton.A)) {
+ *     // A was pressed at least once since the last frame, even if it was already released
+ * }
+ * </pre>
+ *
+ * An attached accumulator starts with the buttons the device holds at that moment, and stops reporting buttons as held
+ * when the device is disconnected, without reporting them as released. It can also be registered by hand with {@link XInputDevice#addStateListener(XInputStateListener)},
+ * in which case it only learns about held buttons from their presses and releases.
+ * <p>
+ * The device may be polled on a different thread than the consumer. {@link #consume()} and the getters must be called from
+ * a single consumer thread.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputFrameAccumulator implements XInputStateListener {
+    // accumulated by the polling thread, guarded by this
+    private int pendingPressed;
+    private int pendingReleased;
+    private int pendingHeld;
+    private final int[] pendingCounts = new int[16];
+
+    // the last consumed frame, only accessed by the consumer
+    private int pressed;
+    private int released;
+    private int held;
+    private final int[] counts = new int[16];
+
+    private final XInputDevice device;// null if registered by hand
+    private final XInputDeviceListener connectionListener = new SimpleXInputDeviceListener() {
+        @Override
+        public void disconnected() {
+            // the connection events bypass the state listeners, and no release is reported for the buttons held
+            synchronized (XInputFrameAccumulator.this) {
+                pendingHeld = 0;
+            }
+        }
+    };
+
+    /**
+     * Creates an accumulator to be registered by hand as a state listener of a device.
+     */
+    public XInputFrameAccumulator() {
+        device = null;
+    }
+
+    /**
+     * Creates an accumulator and attaches it to a device. The buttons held by the device are reported as held until they
+     * are released or the device is disconnected.
+     *
+     * @param device the device
+     */
+    public XInputFrameAccumulator(final XInputDevice device) {
+        this.device = device;
+        device.addStateListener(this);
+        device.addListener(connectionListener, XInputDevice.LISTEN_CONNECTION);
+        // read after registering, so the changes published since are either in the snapshot or delivered to the listener
+        final XInputSnapshot snapshot = device.readSnapshot(new XInputSnapshot());
+        if (snapshot.isConnected()) {
+            synchronized (this) {
+                pendingHeld = snapshot.getButtonMask();
+            }
+        }
+    }
+
+    /**
+     * Detaches the accumulator from the device it was created for. Does nothing if it was registered by hand.
+     */
+    public void detach() {
+        if (device != null) {
+            device.removeStateListener(this);
+            device.removeListener(connectionListener);
+        }
+    }
+
+    @Override
+    public synchronized void stateChanged(final XInputDevice device, final int pressedMask, final int releasedMask,
+        final int dirtyAxes, final long timestamp) {
+        pendingPressed |= pressedMask;
+        pendingReleased |= releasedMask;
+        pendingHeld = (pendingHeld | pressedMask) & ~releasedMask;
+        int bits = pressedMask;
+        while (bits != 0) {
+            final int bit = Integer.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            pendingCounts[bit]++;
+        }
+    }
+
+    /**
+     * Takes the button changes accumulated since the last call, which are then available through the getters, and starts
+     * accumulating the next frame.
+     *
+     * @return <code>true</code> if any button was pressed or released since the last call, <code>false</code> otherwise
+     */
+    public synchronized boolean consume() {
+        pressed = pendingPressed;
+        released = pendingReleased;
+        held = pendingHeld;
+        int bits = pressed;
+        while (bits != 0) {
+            final int bit = Integer.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            counts[bit] = pendingCounts[bit];
+            pendingCounts[bit] = 0;
+        }
+        // buttons that were not pressed in this frame have no presses to count
+        bits = ~pressed & 0xffff;
+        while (bits != 0) {
+            final int bit = Integer.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            counts[bit] = 0;
+        }
+        pendingPressed = 0;
+        pendingReleased = 0;
+        return (pressed | released) != 0;
+    }
+
+    /**
+     * Returns the mask of the buttons that were pressed at least once during the frame.
+     *
+     * @return the mask of the buttons pressed during the frame
+     */
+    public int getPressedMask() {
+        return pressed;
+    }
+
+    /**
+     * Returns the mask of the buttons that were released at least once during the frame.
+     *
+     * @return the mask of the buttons released during the frame
+     */
+    public int getReleasedMask() {
+        return released;
+    }
+
+    /**
+     * Returns the mask of the buttons that were held down at the end of the frame.
+     *
+     * @return the mask of the buttons held at the end of the frame
+     */
+    public int getHeldMask() {
+        return held;
+    }
+
+    /**
+     * Determines whether a button was pressed at least once during the frame.
+     *
+     * @param button the button
+     * @return <code>true</code> if the button was pressed during the frame, <code>false</code> otherwise
+     */
+    public boolean wasPressed(final XInputButton button) {
+        return (pressed & button.getMask()) != 0;
+    }
+
+    /**
+     * Determines whether a button was released at least once during the frame.
+     *
+     * @param button the button
+     * @return <code>true</code> if the button was released during the frame, <code>false</code> otherwise
+     */
+    public boolean wasReleased(final XInputButton button) {
+        return (released & button.getMask()) != 0;
+    }
+
+    /**
+     * Determines whether a button was held down at the end of the frame.
+     *
+     * @param button the button
+     * @return <code>true</code> if the button was held at the end of the frame, <code>false</code> otherwise
+     */
+    public boolean isHeld(final XInputButton button) {
+        return (held & button.getMask()) != 0;
+    }
+
+    /**
+     * Returns the number of times a button was pressed during the frame.
+     *
+     * @param button the button
+     * @return the number of presses of the button during the frame
+     */
+    public int getPressCount(final XInputButton button) {
+        return counts[Integer.numberOfTrailingZeros(button.getMask())];
+    }
+}
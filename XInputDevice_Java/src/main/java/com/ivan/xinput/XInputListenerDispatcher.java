@@ -0,0 +1,441 @@
+package com.ivan.xinput;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ivan.xinput.enums.XInputAxis;
+import com.ivan.xinput.enums.XInputButton;
+import com.ivan.xinput.listener.XInputAxisListener;
+import com.ivan.xinput.listener.XInputDeviceListener;
+import com.ivan.xinput.listener.XInputStateListener;
+import com.ivan.xinput.listener.XInputTimestampedListener;
+
+/**
+ * Delivers the events of a device to its listeners.
+ * <p>
+ * The events of a poll are captured in a frame, which is dispatched either on the polling thread or, if an executor is
+ * set, on that executor. Frames that cannot run right away wait in a single queue per device, which is drained by one
+ * thread at a time, so frames run one at a time and in order even if the executor runs tasks concurrently or is changed
+ * while frames are queued. Exceptions and errors thrown by a listener are caught and counted, and do not prevent the
+ * other listeners from receiving the event.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+final class XInputListenerDispatcher {
+    private static final int AXIS_COUNT = XInputAxis.values().length;
+
+    private static final int NO_CONNECTION_CHANGE = 0;
+    private static final int CONNECTED = 1;
+    private static final int DISCONNECTED = 2;
+
+    private final XInputDevice device;
+
+    final XInputListenerRegistry<ListenerRegistration> listeners;
+    final XInputListenerRegistry<AxisRegistration> axisListeners;
+    final XInputListenerRegistry<StateRegistration> stateListeners;
+
+    private final Frame syncFrame;// reused when dispatching on the polling thread
+    private volatile Executor executor;
+
+    // frames waiting to run; pending counts the queued frames plus the one running, and the thread that raises it from
+    // zero starts the only drain
+    private final ConcurrentLinkedQueue<Frame> frames = new ConcurrentLinkedQueue<Frame>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    private final AtomicLong errorCount = new AtomicLong();
+    private volatile Throwable lastError;
+
+    XInputListenerDispatcher(final XInputDevice device) {
+        this.device = device;
+        listeners = new XInputListenerRegistry<ListenerRegistration>(new ListenerRegistration[0]);
+        axisListeners = new XInputListenerRegistry<AxisRegistration>(new AxisRegistration[0]);
+        stateListeners = new XInputListenerRegistry<StateRegistration>(new StateRegistration[0]);
+        syncFrame = new Frame(this);
+    }
+
+    /**
+     * Sets the executor that runs the listeners. Frames queued when the executor is changed are still run in order by the
+     * drain already in progress, which may belong to the previous executor; frames dispatched after the queue empties
+     * use the new executor.
+     *
+     * @param executor the executor, or <code>null</code> to run the listeners on the polling thread
+     */
+    void setExecutor(final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the executor that runs the listeners.
+     *
+     * @return the executor, or <code>null</code> if the listeners run on the polling thread
+     */
+    Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Dispatches a connection or disconnection event.
+     *
+     * @param connected whether the device was connected or disconnected
+     * @param timestamp the {@link System#nanoTime()} of the poll that detected the change
+     */
+    void connectionChanged(final boolean connected, final long timestamp) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        final Executor executor = this.executor;
+        final Frame frame = newFrame(executor);
+        frame.connection = connected ? CONNECTED : DISCONNECTED;
+        frame.pressedMask = 0;
+        frame.releasedMask = 0;
+        frame.dirtyAxes = 0;
+        frame.timestamp = timestamp;
+        dispatch(frame, executor);
+    }
+
+    /**
+     * Dispatches the changes of the state of the device.
+     *
+     * @param pressedMask the mask of the buttons that were pressed
+     * @param releasedMask the mask of the buttons that were released
+     * @param dirtyAxes the mask of the axes that changed
+     * @param axes the current axes
+     * @param normalized <code>true</code> to report the normalized values of the axes, <code>false</code> for the raw values
+     * @param timestamp the {@link System#nanoTime()} of the poll that detected the change
+     */
+    void stateChanged(final int pressedMask, final int releasedMask, final int dirtyAxes, final XInputAxes axes,
+        final boolean normalized, final long timestamp) {
+        if ((pressedMask | releasedMask | dirtyAxes) == 0
+            || listeners.isEmpty() && axisListeners.isEmpty() && stateListeners.isEmpty()) {
+            return;
+        }
+        final Executor executor = this.executor;
+        final Frame frame = newFrame(executor);
+        frame.connection = NO_CONNECTION_CHANGE;
+        frame.pressedMask = pressedMask;
+        frame.releasedMask = releasedMask;
+        frame.dirtyAxes = dirtyAxes;
+        frame.timestamp = timestamp;
+        final float[] values = frame.axes;
+        int bits = dirtyAxes;
+        while (bits != 0) {
+            final int ordinal = Integer.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            values[ordinal] = axes.get(XInputAxis.fromOrdinal(ordinal), normalized);
+        }
+        dispatch(frame, executor);
+    }
+
+    private Frame newFrame(final Executor executor) {
+        // only the polling thread dispatches frames, so with no frames pending no drain is running, and the reused frame
+        // can run right away; queued frames are owned by the queue until they run
+        return executor == null && pending.get() == 0 ? syncFrame : new Frame(this);
+    }
+
+    private void dispatch(final Frame frame, final Executor executor) {
+        if (frame == syncFrame) {
+            run(frame);
+            return;
+        }
+        frames.offer(frame);
+        if (pending.getAndIncrement() != 0) {
+            // a drain is in progress and will run the frame
+            return;
+        }
+        if (executor == null) {
+            drain();
+            return;
+        }
+        try {
+            executor.execute(drain);
+        } catch (final RuntimeException e) {
+            // the executor rejected the drain, so drop the frames instead of stalling every later frame
+            frames.clear();
+            pending.set(0);
+            errorCount.incrementAndGet();
+            lastError = e;
+        }
+    }
+
+    /**
+     * Runs the queued frames until the queue is empty. Only one drain runs at a time.
+     */
+    private void drain() {
+        do {
+            final Frame frame = frames.poll();
+            try {
+                run(frame);
+            } catch (final Throwable t) {
+                // the listeners are guarded individually; keep draining so that later frames are not stalled
+                errorCount.incrementAndGet();
+                lastError = t;
+            }
+        } while (pending.decrementAndGet() != 0);
+    }
+
+    /**
+     * Runs the listeners for the events in the frame.
+     *
+     * @param frame the frame
+     */
+    void run(final Frame frame) {
+        if (frame.connection != NO_CONNECTION_CHANGE) {
+            runConnection(frame.connection == CONNECTED, frame.timestamp);
+            return;
+        }
+        final int changedMask = frame.pressedMask | frame.releasedMask;
+        if (changedMask != 0) {
+            runButtons(changedMask, frame.pressedMask, frame.timestamp);
+        }
+        if (frame.dirtyAxes != 0) {
+            runAxes(frame.dirtyAxes, frame.axes);
+        }
+        runState(frame);
+    }
+
+    private void runConnection(final boolean connected, final long timestamp) {
+        final ListenerRegistration[] registrations = listeners.get();
+        for (int i = 0; i < registrations.length; i++) {
+            final ListenerRegistration registration = registrations[i];
+            if ((registration.mask & XInputDevice.LISTEN_CONNECTION) == 0) {
+                continue;
+            }
+            try {
+                if (connected) {
+                    if (registration.timestamped != null) {
+                        registration.timestamped.connected(timestamp);
+                    } else {
+                        registration.listener.connected();
+                    }
+                } else {
+                    if (registration.timestamped != null) {
+                        registration.timestamped.disconnected(timestamp);
+                    } else {
+                        registration.listener.disconnected();
+                    }
+                }
+            } catch (final Throwable t) {
+                failed(registration, t);
+            }
+        }
+    }
+
+    private void runButtons(final int changedMask, final int pressedMask, final long timestamp) {
+        final ListenerRegistration[] registrations = listeners.get();
+        for (int i = 0; i < registrations.length; i++) {
+            final ListenerRegistration registration = registrations[i];
+            // walk only the bits of the subscribed buttons that changed
+            int bits = changedMask & registration.mask;
+            while (bits != 0) {
+                final int bit = Integer.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                final boolean pressed = (pressedMask & (1 << bit)) != 0;
+                try {
+                    if (registration.timestamped != null) {
+                        registration.timestamped.buttonChanged(XInputButton.fromBit(bit), pressed, timestamp);
+                    } else {
+                        registration.listener.buttonChanged(XInputButton.fromBit(bit), pressed);
+                    }
+                } catch (final Throwable t) {
+                    failed(registration, t);
+                }
+            }
+        }
+    }
+
+    private void runAxes(final int dirtyAxes, final float[] values) {
+        final AxisRegistration[] registrations = axisListeners.get();
+        for (int i = 0; i < registrations.length; i++) {
+            final AxisRegistration registration = registrations[i];
+            int bits = dirtyAxes & registration.mask;
+            while (bits != 0) {
+                final int ordinal = Integer.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                final XInputAxis axis = XInputAxis.fromOrdinal(ordinal);
+                final float value = values[ordinal];
+                final float change = value - registration.lastValues[ordinal];
+                // the DPAD axis holds discrete directions, so any change is reported
+                if (axis == XInputAxis.DPAD ? change != 0f : Math.abs(change) > registration.thresholds[ordinal]) {
+                    registration.lastValues[ordinal] = value;
+                    try {
+                        registration.listener.axisChanged(axis, value, change);
+                    } catch (final Throwable t) {
+                        failed(registration, t);
+                    }
+                }
+            }
+        }
+    }
+
+    private void runState(final Frame frame) {
+        final StateRegistration[] registrations = stateListeners.get();
+        for (int i = 0; i < registrations.length; i++) {
+            final StateRegistration registration = registrations[i];
+            try {
+                registration.listener.stateChanged(device, frame.pressedMask, frame.releasedMask, frame.dirtyAxes,
+                    frame.timestamp);
+            } catch (final Throwable t) {
+                failed(registration, t);
+            }
+        }
+    }
+
+    private void failed(final Registration registration, final Throwable error) {
+        registration.errorCount.incrementAndGet();
+        errorCount.incrementAndGet();
+        lastError = error;
+    }
+
+    /**
+     * Returns the number of exceptions thrown by all listeners.
+     *
+     * @return the number of exceptions thrown by the listeners
+     */
+    long getErrorCount() {
+        return errorCount.get();
+    }
+
+    /**
+     * Returns the number of exceptions thrown by a listener, across all of its registrations.
+     *
+     * @param listener the listener
+     * @return the number of exceptions thrown by the listener
+     */
+    long getErrorCount(final Object listener) {
+        return countErrors(listeners.get(), listener) + countErrors(axisListeners.get(), listener)
+            + countErrors(stateListeners.get(), listener);
+    }
+
+    private static long countErrors(final Registration[] registrations, final Object listener) {
+        long count = 0;
+        for (final Registration registration : registrations) {
+            if (registration.target().equals(listener)) {
+                count += registration.errorCount.get();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the last exception thrown by a listener.
+     *
+     * @return the last exception, or <code>null</code> if no listener has thrown an exception
+     */
+    Throwable getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Removes the first registration of a listener.
+     *
+     * @param registry the registry to remove the listener from
+     * @param listener the listener
+     */
+    static <T extends Registration> void remove(final XInputListenerRegistry<T> registry, final Object listener) {
+        for (final T registration : registry.get()) {
+            if (registration.target().equals(listener)) {
+                registry.remove(registration);
+                return;
+            }
+        }
+    }
+
+    /**
+     * The events of a single poll.
+     */
+    static final class Frame implements Runnable {
+        private final XInputListenerDispatcher dispatcher;
+
+        int connection;
+        int pressedMask;
+        int releasedMask;
+        int dirtyAxes;
+        final float[] axes = new float[AXIS_COUNT];// values of the dirty axes, indexed by axis ordinal
+        long timestamp;
+
+        Frame(final XInputListenerDispatcher dispatcher) {
+            this.dispatcher = dispatcher;
+        }
+
+        @Override
+        public void run() {
+            dispatcher.run(this);
+        }
+    }
+
+    /**
+     * A registered listener along with its error count.
+     */
+    abstract static class Registration {
+        final AtomicLong errorCount = new AtomicLong();
+
+        abstract Object target();
+    }
+
+    /**
+     * An event listener along with its subscription mask.
+     */
+    static final class ListenerRegistration extends Registration {
+        final XInputDeviceListener listener;
+        final XInputTimestampedListener timestamped;// the same listener if it accepts timestamps, otherwise null
+        final int mask;
+
+        ListenerRegistration(final XInputDeviceListener listener, final int mask) {
+            this.listener = listener;
+            timestamped = listener instanceof XInputTimestampedListener ? (XInputTimestampedListener) listener : null;
+            this.mask = mask;
+        }
+
+        @Override
+        Object target() {
+            return listener;
+        }
+    }
+
+    /**
+     * An axis listener along with its thresholds and the values last reported to it.
+     */
+    static final class AxisRegistration extends Registration {
+        final XInputAxisListener listener;
+        final float[] thresholds;// indexed by axis ordinal
+        final float[] lastValues;// indexed by axis ordinal; only accessed while dispatching
+        final int mask;// bit per axis ordinal
+
+        AxisRegistration(final XInputAxisListener listener, final float[] thresholds, final int mask) {
+            this.listener = listener;
+            this.thresholds = thresholds;
+            this.mask = mask;
+            lastValues = new float[AXIS_COUNT];
+            lastValues[XInputAxis.DPAD.ordinal()] = XInputAxes.DPAD_CENTER;
+        }
+
+        @Override
+        Object target() {
+            return listener;
+        }
+    }
+
+    /**
+     * A state listener.
+     */
+    static final class StateRegistration extends Registration {
+        final XInputStateListener listener;
+
+        StateRegistration(final XInputStateListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        Object target() {
+            return listener;
+        }
+    }
+}
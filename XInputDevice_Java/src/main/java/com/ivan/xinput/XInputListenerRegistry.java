@@ -0,0 +1,82 @@
+package com.ivan.xinput;
+
+import java.util.Arrays;
+
+/**
+ * A thread-safe, copy-on-write list of listeners.
+ * <p>
+ * The listeners are kept in an array that is never modified once published. Adding or removing a listener copies the
+ * array under a lock and replaces it atomically, so listeners may be added or removed from any thread, including from
+ * inside a callback, while dispatch iterates over the current array with an indexed loop, without locks or iterators. A
+ * dispatch that is in progress is not affected by changes made while it runs.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ * @param <T> the type of the listeners
+ */
+final class XInputListenerRegistry<T> {
+    private final T[] empty;
+    private volatile T[] listeners;
+
+    /**
+     * Creates an empty registry.
+     *
+     * @param empty an empty array of the listener type
+     */
+    XInputListenerRegistry(final T[] empty) {
+        this.empty = empty;
+        listeners = empty;
+    }
+
+    /**
+     * Returns the current listeners. The returned array must not be modified.
+     *
+     * @return the current listeners
+     */
+    T[] get() {
+        return listeners;
+    }
+
+    /**
+     * Adds a listener to the end of the list.
+     *
+     * @param listener the listener
+     */
+    synchronized void add(final T listener) {
+        final T[] current = listeners;
+        final T[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * Removes the first occurrence of a listener.
+     *
+     * @param listener the listener
+     * @return <code>true</code> if the listener was removed, <code>false</code> if it was not registered
+     */
+    synchronized boolean remove(final Object listener) {
+        final T[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].equals(listener)) {
+                if (current.length == 1) {
+                    listeners = empty;
+                } else {
+                    final T[] updated = Arrays.copyOf(current, current.length - 1);
+                    System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                    listeners = updated;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines whether there are no listeners.
+     *
+     * @return <code>true</code> if there are no listeners, <code>false</code> otherwise
+     */
+    boolean isEmpty() {
+        return listeners.length == 0;
+    }
+}
@@ -0,0 +1,276 @@
+package com.ivan.xinput;
+
+/**
+ * An immutable, compact representation of the state of an XInput gamepad.
+ * <p>
+ * The XINPUT_GAMEPAD payload is packed into two {@code long}s:
+ * <ul>
+ * <li>the low word holds {@code wButtons} (bits 0-15), {@code bLeftTrigger} (bits 16-23), {@code bRightTrigger}
+ * (bits 24-31), {@code sThumbLX} (bits 32-47) and {@code sThumbLY} (bits 48-63)</li>
+ * <li>the high word holds {@code sThumbRX} (bits 0-15) and {@code sThumbRY} (bits 16-31); the remaining bits are zero</li>
+ * </ul>
+ * The static methods of this class pack and unpack these words, so that histories, network messages and change
+ * detection can work directly on primitives. Two gamepad states are equal if and only if both words are equal.
+ * <p>
+ * Packed states are {@link #equals(Object) equal} when they have the same payload and packet number. The timestamp is left
+ * out, since every poll has its own: two reads of a device whose state has not changed are equal, as XInput keeps the
+ * packet number until the state changes. Use {@link #sameGamepad(XInputPackedState)} to compare only the payloads.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public final class XInputPackedState {
+    private final long low;
+    private final long high;
+    private final int packetNumber;
+    private final long timestamp;
+
+    /**
+     * Creates a packed state.
+     *
+     * @param low the low word, as returned by {@link #packLow(int, int, int, int, int)}
+     * @param high the high word, as returned by {@link #packHigh(int, int)}
+     * @param packetNumber the packet number of the state
+     * @param timestamp the {@link System#nanoTime()} at which the state was read
+     */
+    public XInputPackedState(final long low, final long high, final int packetNumber, final long timestamp) {
+        this.low = low;
+        this.high = high;
+        this.packetNumber = packetNumber;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Packs the buttons, triggers and left thumbstick into the low word.
+     *
+     * @param buttons the button mask
+     * @param leftTrigger the raw left trigger value, from 0 to 255
+     * @param rightTrigger the raw right trigger value, from 0 to 255
+     * @param thumbLX the raw left thumbstick X value, from -32768 to 32767
+     * @param thumbLY the raw left thumbstick Y value, from -32768 to 32767
+     * @return the low word
+     */
+    public static long packLow(final int buttons, final int leftTrigger, final int rightTrigger, final int thumbLX, final int thumbLY) {
+        return (buttons & 0xffffL) | (leftTrigger & 0xffL) << 16 | (rightTrigger & 0xffL) << 24
+            | (thumbLX & 0xffffL) << 32 | (thumbLY & 0xffffL) << 48;
+    }
+
+    /**
+     * Packs the right thumbstick into the high word.
+     *
+     * @param thumbRX the raw right thumbstick X value, from -32768 to 32767
+     * @param thumbRY the raw right thumbstick Y value, from -32768 to 32767
+     * @return the high word
+     */
+    public static long packHigh(final int thumbRX, final int thumbRY) {
+        return (thumbRX & 0xffffL) | (thumbRY & 0xffffL) << 16;
+    }
+
+    /**
+     * Extracts the button mask from the low word.
+     *
+     * @param low the low word
+     * @return the button mask
+     */
+    public static int buttons(final long low) {
+        return (int) low & 0xffff;
+    }
+
+    /**
+     * Extracts the raw left trigger value from the low word.
+     *
+     * @param low the low word
+     * @return the raw left trigger value, from 0 to 255
+     */
+    public static int leftTrigger(final long low) {
+        return (int) (low >>> 16) & 0xff;
+    }
+
+    /**
+     * Extracts the raw right trigger value from the low word.
+     *
+     * @param low the low word
+     * @return the raw right trigger value, from 0 to 255
+     */
+    public static int rightTrigger(final long low) {
+        return (int) (low >>> 24) & 0xff;
+    }
+
+    /**
+     * Extracts the raw left thumbstick X value from the low word.
+     *
+     * @param low the low word
+     * @return the raw left thumbstick X value, from -32768 to 32767
+     */
+    public static int thumbLX(final long low) {
+        return (short) (low >>> 32);
+    }
+
+    /**
+     * Extracts the raw left thumbstick Y value from the low word.
+     *
+     * @param low the low word
+     * @return the raw left thumbstick Y value, from -32768 to 32767
+     */
+    public static int thumbLY(final long low) {
+        return (short) (low >>> 48);
+    }
+
+    /**
+     * Extracts the raw right thumbstick X value from the high word.
+     *
+     * @param high the high word
+     * @return the raw right thumbstick X value, from -32768 to 32767
+     */
+    public static int thumbRX(final long high) {
+        return (short) high;
+    }
+
+    /**
+     * Extracts the raw right thumbstick Y value from the high word.
+     *
+     * @param high the high word
+     * @return the raw right thumbstick Y value, from -32768 to 32767
+     */
+    public static int thumbRY(final long high) {
+        return (short) (high >>> 16);
+    }
+
+    /**
+     * Returns the low word, holding the buttons, triggers and left thumbstick.
+     *
+     * @return the low word
+     */
+    public long getLow() {
+        return low;
+    }
+
+    /**
+     * Returns the high word, holding the right thumbstick.
+     *
+     * @return the high word
+     */
+    public long getHigh() {
+        return high;
+    }
+
+    /**
+     * Returns the packet number of the state.
+     *
+     * @return the packet number of the state
+     */
+    public int getPacketNumber() {
+        return packetNumber;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} at which the state was read.
+     *
+     * @return the timestamp of the state
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the button mask.
+     *
+     * @return the button mask
+     */
+    public int getButtons() {
+        return buttons(low);
+    }
+
+    /**
+     * Returns the raw left trigger value.
+     *
+     * @return the raw left trigger value, from 0 to 255
+     */
+    public int getLeftTrigger() {
+        return leftTrigger(low);
+    }
+
+    /**
+     * Returns the raw right trigger value.
+     *
+     * @return the raw right trigger value, from 0 to 255
+     */
+    public int getRightTrigger() {
+        return rightTrigger(low);
+    }
+
+    /**
+     * Returns the raw left thumbstick X value.
+     *
+     * @return the raw left thumbstick X value, from -32768 to 32767
+     */
+    public int getThumbLX() {
+        return thumbLX(low);
+    }
+
+    /**
+     * Returns the raw left thumbstick Y value.
+     *
+     * @return the raw left thumbstick Y value, from -32768 to 32767
+     */
+    public int getThumbLY() {
+        return thumbLY(low);
+    }
+
+    /**
+     * Returns the raw right thumbstick X value.
+     *
+     * @return the raw right thumbstick X value, from -32768 to 32767
+     */
+    public int getThumbRX() {
+        return thumbRX(high);
+    }
+
+    /**
+     * Returns the raw right thumbstick Y value.
+     *
+     * @return the raw right thumbstick Y value, from -32768 to 32767
+     */
+    public int getThumbRY() {
+        return thumbRY(high);
+    }
+
+    /**
+     * Determines whether this state has the same gamepad payload as the given state, regardless of the packet numbers and
+     * timestamps.
+     *
+     * @param other the other state
+     * @return <code>true</code> if the buttons, triggers and thumbsticks are equal, <code>false</code> otherwise
+     */
+    public boolean sameGamepad(final XInputPackedState other) {
+        return low == other.low && high == other.high;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof XInputPackedState)) {
+            return false;
+        }
+        final XInputPackedState other = (XInputPackedState) obj;
+        return low == other.low && high == other.high && packetNumber == other.packetNumber;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (low ^ low >>> 32);
+        result = 31 * result + (int) (high ^ high >>> 32);
+        result = 31 * result + packetNumber;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "XInputPackedState[buttons=0x" + Integer.toHexString(getButtons())
+            + ", lt=" + getLeftTrigger() + ", rt=" + getRightTrigger()
+            + ", lx=" + getThumbLX() + ", ly=" + getThumbLY()
+            + ", rx=" + getThumbRX() + ", ry=" + getThumbRY()
+            + ", packet=" + packetNumber + ", timestamp=" + timestamp + "]";
+    }
+}
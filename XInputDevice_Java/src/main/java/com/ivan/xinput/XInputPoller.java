@@ -0,0 +1,274 @@
+package com.ivan.xinput;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.ivan.xinput.exceptions.XInputNotLoadedException;
+
+/**
+ * Polls XInput devices at a fixed rate on a dedicated thread.
+ * <p>
+ * Polls are scheduled against absolute deadlines, so the rate does not drift when individual polls take longer. The
+ * thread parks until shortly before each deadline and spins for the remaining time (see
+ * {@link #setSpinThreshold(long, TimeUnit)}) to keep the interval between polls consistent. If the thread falls behind
+ * by more than one period, the missed polls are skipped instead of being run back-to-back.
+ * <p>
+ * Disconnected devices are probed on a backoff schedule, as described in {@link XInputDevice}.
+ * <p>
+ * Unless a device has a {@link XInputDevice#setListenerExecutor(java.util.concurrent.Executor) listener executor}, its
+ * listeners are invoked from the polling thread, so they should not block. Exceptions thrown while polling are counted
+ * (see {@link #getErrorCount()}) and do not stop the poller.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputPoller {
+    private static final long DEFAULT_SPIN_THRESHOLD = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long RATE_WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    private final XInputDevice[] devices;// null to poll all devices with XInputDevice.pollAll()
+
+    private volatile long period;
+    private volatile long spinThreshold = DEFAULT_SPIN_THRESHOLD;
+
+    private volatile Thread thread;// the thread that should be polling, null when stopped
+    private volatile boolean running;
+    private Thread exiting;// a polling thread stopped from itself, which may still be finishing its last poll
+
+    private volatile double observedRate;
+    private volatile long pollCount;
+    private volatile long errorCount;
+    private volatile Throwable lastError;
+
+    /**
+     * Creates a poller that polls all XInput devices with {@link XInputDevice#pollAll()}.
+     *
+     * @param frequency the polling frequency in Hz, such as 125, 250, 500 or 1000
+     * @throws XInputNotLoadedException if the native library failed to load
+     * @throws IllegalArgumentException if the frequency is not positive
+     */
+    public XInputPoller(final int frequency) throws XInputNotLoadedException {
+        XInputDevice.getAllDevices();// fail early if the devices are not available
+        devices = null;
+        setFrequency(frequency);
+    }
+
+    /**
+     * Creates a poller that polls the specified devices, one at a time.
+     *
+     * @param frequency the polling frequency in Hz, such as 125, 250, 500 or 1000
+     * @param devices the devices to poll
+     * @throws IllegalArgumentException if the frequency is not positive
+     */
+    public XInputPoller(final int frequency, final XInputDevice... devices) {
+        this.devices = devices.clone();
+        setFrequency(frequency);
+    }
+
+    /**
+     * Sets the target polling frequency. The new frequency takes effect after the next poll.
+     *
+     * @param frequency the polling frequency in Hz
+     * @throws IllegalArgumentException if the frequency is not positive
+     */
+    public void setFrequency(final int frequency) {
+        if (frequency <= 0) {
+            throw new IllegalArgumentException("Invalid polling frequency: " + frequency);
+        }
+        period = TimeUnit.SECONDS.toNanos(1) / frequency;
+    }
+
+    /**
+     * Returns the target polling frequency.
+     *
+     * @return the polling frequency in Hz
+     */
+    public double getFrequency() {
+        return (double) TimeUnit.SECONDS.toNanos(1) / period;
+    }
+
+    /**
+     * Sets how long before each deadline the polling thread stops parking and starts spinning. Larger values improve the
+     * precision of the polling interval on platforms with coarse timers at the cost of CPU usage. Zero disables spinning.
+     *
+     * @param threshold the spin threshold
+     * @param unit the time unit of the threshold
+     * @throws IllegalArgumentException if the threshold is negative
+     */
+    public void setSpinThreshold(final long threshold, final TimeUnit unit) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Invalid spin threshold: " + threshold);
+        }
+        spinThreshold = unit.toNanos(threshold);
+    }
+
+    /**
+     * Starts the polling thread. Does nothing if the poller is already running. If the poller was stopped from its own
+     * polling thread, the new thread waits for the previous one to finish before it starts polling.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        final Thread previous = exiting;
+        exiting = null;
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                if (previous != null) {
+                    joinUninterruptibly(previous);
+                }
+                loop();
+            }
+        }, "XInput Poller");
+        thread.setDaemon(true);
+        this.thread = thread;
+        thread.start();
+    }
+
+    /**
+     * Stops the polling thread and waits for it to finish. Does nothing if the poller is not running. When called from the
+     * polling thread, for example from a listener, the thread finishes its current poll after this method returns.
+     *
+     * @throws InterruptedException if interrupted while waiting for the polling thread to finish
+     */
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        final Thread thread = this.thread;
+        this.thread = null;
+        LockSupport.unpark(thread);
+        if (thread != Thread.currentThread()) {
+            thread.join();
+        } else {
+            exiting = thread;
+        }
+    }
+
+    /**
+     * Determines whether the poller is running.
+     *
+     * @return <code>true</code> if the poller is running, <code>false</code> otherwise
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the polling rate measured over the last second.
+     *
+     * @return the observed polling rate in Hz, or 0 if not measured yet
+     */
+    public double getObservedRate() {
+        return observedRate;
+    }
+
+    /**
+     * Returns the number of polls performed since the poller was created.
+     *
+     * @return the number of polls
+     */
+    public long getPollCount() {
+        return pollCount;
+    }
+
+    /**
+     * Returns the number of failed polls. Errors thrown while polling, such as by a backend, are counted as well, and do
+     * not stop the poller. When polling specific devices, each device that fails counts as a failed poll.
+     *
+     * @return the number of failed polls
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Returns the exception or error thrown by the last failed poll.
+     *
+     * @return the last exception or error, or <code>null</code> if no poll has failed
+     */
+    public Throwable getLastError() {
+        return lastError;
+    }
+
+    private static void joinUninterruptibly(final Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void loop() {
+        // a thread stopped from itself would see running again if the poller is restarted, so it checks its own identity
+        final Thread self = Thread.currentThread();
+        long deadline = System.nanoTime();
+        long windowStart = deadline;
+        long windowPolls = 0;
+        while (thread == self) {
+            pollOnce();
+            pollCount++;
+            windowPolls++;
+
+            final long period = this.period;
+            deadline += period;
+            long now = System.nanoTime();
+            if (now - deadline > period) {
+                // fell behind; skip the missed polls instead of bursting to catch up
+                deadline = now;
+            }
+            if (now - windowStart >= RATE_WINDOW) {
+                observedRate = windowPolls * (double) TimeUnit.SECONDS.toNanos(1) / (now - windowStart);
+                windowStart = now;
+                windowPolls = 0;
+            }
+
+            // park until close to the deadline, then spin for the rest
+            final long spinThreshold = this.spinThreshold;
+            long remaining = deadline - now;
+            while (remaining > spinThreshold && thread == self) {
+                LockSupport.parkNanos(this, remaining - spinThreshold);
+                remaining = deadline - System.nanoTime();
+            }
+            while (deadline - System.nanoTime() > 0 && thread == self) {
+                // spin
+            }
+        }
+        // cleared here rather than in stop(), which may return before the last iteration of this loop when called from it
+        observedRate = 0;
+    }
+
+    private void pollOnce() {
+        if (devices == null) {
+            try {
+                XInputDevice.pollAll();
+            } catch (final Throwable t) {
+                failed(t);
+            }
+        } else {
+            final long now = System.nanoTime();
+            for (final XInputDevice device : devices) {
+                // a failing device must not keep the others from being polled
+                try {
+                    device.pollIfDue(now);
+                } catch (final Throwable t) {
+                    failed(t);
+                }
+            }
+        }
+    }
+
+    private void failed(final Throwable t) {
+        errorCount++;
+        lastError = t;
+    }
+}
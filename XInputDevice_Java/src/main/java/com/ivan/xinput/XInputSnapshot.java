@@ -0,0 +1,145 @@
+package com.ivan.xinput;
+
+import com.ivan.xinput.enums.XInputAxis;
+import com.ivan.xinput.enums.XInputButton;
+
+/**
+ * A consistent copy of the state of an XInput device, for use on threads other than the one polling the device.
+ * <p>
+ * Snapshots are filled by {@link XInputDevice#readSnapshot(XInputSnapshot)}, which never returns values from two
+ * different polls. Snapshots are owned by the reader: reuse the same instance to avoid allocations, and do not share it
+ * between reader threads without synchronization.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputSnapshot {
+    boolean connected;
+    int packetNumber;
+    long generation;
+    long low, high;// XInputPackedState words
+    float lx, ly;
+    float rx, ry;
+    float lt, rt;
+    int dpad = XInputAxes.DPAD_CENTER;
+
+    /**
+     * Returns a boolean indicating whether the device was connected.
+     *
+     * @return <code>true</code> if the device was connected, <code>false</code> otherwise
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Returns the packet number of the state.
+     *
+     * @return the packet number of the state
+     */
+    public int getPacketNumber() {
+        return packetNumber;
+    }
+
+    /**
+     * Returns the generation of the state (see {@link XInputComponents#getGeneration()}). Readers polling the snapshot at
+     * their own rate can compare it with the generation they last processed to skip unchanged states.
+     *
+     * @return the generation of the state
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the low word of the packed gamepad state.
+     *
+     * @return the low word of the packed gamepad state
+     * @see XInputPackedState
+     */
+    public long getPackedLow() {
+        return low;
+    }
+
+    /**
+     * Returns the high word of the packed gamepad state.
+     *
+     * @return the high word of the packed gamepad state
+     * @see XInputPackedState
+     */
+    public long getPackedHigh() {
+        return high;
+    }
+
+    /**
+     * Returns the bit mask of the pressed buttons (see {@link XInputButtons#getMask()}).
+     *
+     * @return the bit mask of the pressed buttons
+     */
+    public int getButtonMask() {
+        return XInputPackedState.buttons(low);
+    }
+
+    /**
+     * Determines whether the specified button was pressed.
+     *
+     * @param button the button
+     * @return <code>true</code> if the button was pressed, <code>false</code> otherwise
+     */
+    public boolean isPressed(final XInputButton button) {
+        return (getButtonMask() & button.getMask()) != 0;
+    }
+
+    /**
+     * Gets the value from the specified axis.
+     *
+     * @param axis the axis
+     * @return the value of the axis
+     */
+    public float get(final XInputAxis axis) {
+        switch (axis) {
+            case LEFT_THUMBSTICK_X:
+                return lx;
+            case LEFT_THUMBSTICK_Y:
+                return ly;
+            case RIGHT_THUMBSTICK_X:
+                return rx;
+            case RIGHT_THUMBSTICK_Y:
+                return ry;
+            case LEFT_TRIGGER:
+                return lt;
+            case RIGHT_TRIGGER:
+                return rt;
+            case DPAD:
+                return dpad;
+            default:
+                return 0f;
+        }
+    }
+
+    /**
+     * Gets the raw value from the specified axis.
+     *
+     * @param axis the axis
+     * @return the raw value of the axis
+     */
+    public int getRaw(final XInputAxis axis) {
+        switch (axis) {
+            case LEFT_THUMBSTICK_X:
+                return XInputPackedState.thumbLX(low);
+            case LEFT_THUMBSTICK_Y:
+                return XInputPackedState.thumbLY(low);
+            case RIGHT_THUMBSTICK_X:
+                return XInputPackedState.thumbRX(high);
+            case RIGHT_THUMBSTICK_Y:
+                return XInputPackedState.thumbRY(high);
+            case LEFT_TRIGGER:
+                return XInputPackedState.leftTrigger(low);
+            case RIGHT_TRIGGER:
+                return XInputPackedState.rightTrigger(low);
+            case DPAD:
+                return dpad;
+            default:
+                return 0;
+        }
+    }
+}
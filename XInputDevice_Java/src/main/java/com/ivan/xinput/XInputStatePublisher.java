@@ -0,0 +1,107 @@
+package com.ivan.xinput;
+
+/**
+ * Publishes the state of a device from the polling thread to any number of reader threads without locks, using a
+ * sequence lock (seqlock).
+ * <p>
+ * Memory-ordering contract:
+ * <ul>
+ * <li>There must be a single writer at a time, which is the thread polling the device. Readers may run on any thread.</li>
+ * <li>The writer increments {@code sequence} to an odd value, stores the payload words, then increments
+ * {@code sequence} to the next even value.</li>
+ * <li>Readers load {@code sequence}, retrying while it is odd, load the payload words, then load {@code sequence}
+ * again. The payload is consistent if both loads returned the same even value; otherwise the read is retried.</li>
+ * <li>The sequence and all payload words are {@code volatile}, so every access is a synchronization action. This keeps
+ * payload loads from being reordered past the second load of the sequence, and makes everything the writer stored
+ * before a publication visible to readers that observe it. Each publication therefore happens-before any read that
+ * returns it.</li>
+ * </ul>
+ * Readers never block the writer; a reader may spin while a publication is in progress, which takes a few stores.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+final class XInputStatePublisher {
+    private volatile int sequence;
+
+    // Payload words
+    private volatile long gamepad;// XInputPackedState low word
+    private volatile long thumbs;// XInputPackedState high word | packetNumber << 32
+    private volatile long leftStick;// float bits: lx | ly << 32
+    private volatile long rightStick;// float bits: rx | ry << 32
+    private volatile long triggers;// float bits: lt | rt << 32
+    private volatile long status;// dpad | connected << 32
+    private volatile long generation;
+
+    /**
+     * Publishes the state of the device. Must only be called by the thread polling the device.
+     *
+     * @param connected whether the device is connected
+     * @param low the low word of the packed gamepad state
+     * @param high the high word of the packed gamepad state
+     * @param packetNumber the packet number of the state
+     * @param generation the generation of the state
+     * @param axes the current axes
+     * @see XInputPackedState
+     */
+    void publish(final boolean connected, final long low, final long high, final int packetNumber, final long generation,
+        final XInputAxes axes) {
+        final int seq = sequence;
+        sequence = seq + 1;
+        gamepad = low;
+        thumbs = high | (packetNumber & 0xffffffffL) << 32;
+        leftStick = pack(axes.lx, axes.ly);
+        rightStick = pack(axes.rx, axes.ry);
+        triggers = pack(axes.lt, axes.rt);
+        status = (axes.dpad & 0xffffffffL) | (connected ? 1L : 0L) << 32;
+        this.generation = generation;
+        sequence = seq + 2;
+    }
+
+    /**
+     * Reads the last published state into the snapshot. May be called from any thread.
+     *
+     * @param snapshot the snapshot to fill in
+     */
+    void read(final XInputSnapshot snapshot) {
+        long gamepad, thumbs, leftStick, rightStick, triggers, status, generation;
+        int seq;
+        do {
+            seq = sequence;
+            while ((seq & 1) != 0) {
+                seq = sequence;
+            }
+            gamepad = this.gamepad;
+            thumbs = this.thumbs;
+            leftStick = this.leftStick;
+            rightStick = this.rightStick;
+            triggers = this.triggers;
+            status = this.status;
+            generation = this.generation;
+        } while (sequence != seq);
+
+        snapshot.low = gamepad;
+        snapshot.high = thumbs & 0xffffffffL;
+        snapshot.packetNumber = (int) (thumbs >>> 32);
+        snapshot.lx = low(leftStick);
+        snapshot.ly = high(leftStick);
+        snapshot.rx = low(rightStick);
+        snapshot.ry = high(rightStick);
+        snapshot.lt = low(triggers);
+        snapshot.rt = high(triggers);
+        snapshot.dpad = (int) status;
+        snapshot.connected = (status >>> 32) != 0;
+        snapshot.generation = generation;
+    }
+
+    private static long pack(final float low, final float high) {
+        return (Float.floatToRawIntBits(low) & 0xffffffffL) | (long) Float.floatToRawIntBits(high) << 32;
+    }
+
+    private static float low(final long packed) {
+        return Float.intBitsToFloat((int) packed);
+    }
+
+    private static float high(final long packed) {
+        return Float.intBitsToFloat((int) (packed >>> 32));
+    }
+}
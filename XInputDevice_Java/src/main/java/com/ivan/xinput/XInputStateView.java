@@ -0,0 +1,160 @@
+package com.ivan.xinput;
+
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_DPAD_DOWN;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_DPAD_LEFT;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_DPAD_RIGHT;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_DPAD_UP;
+
+import java.nio.ByteBuffer;
+
+import com.ivan.xinput.enums.XInputAxis;
+import com.ivan.xinput.enums.XInputButton;
+
+/**
+ * A view of the raw state of an XInput device. It reads the fields of the XINPUT_STATE struct straight from the buffer the
+ * backend polls into, so it has no state of its own and reading it copies nothing.
+ * <p>
+ * The view is the cheapest way to read the state of a device, but it only offers what XInput reports: the values are not
+ * run through the {@link XInputDevice#setPipeline(com.ivan.xinput.pipeline.XInputPipeline) pipeline} of the device, and
+ * no deltas are computed. Use the {@link XInputDevice#getComponents() components} for processed values.
+ * <p>
+ * The buffer is overwritten by every poll, so the view must be read from the thread polling the device, and its values are
+ * only meaningful after a successful poll.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public final class XInputStateView {
+    // offsets of the fields of XINPUT_STATE
+    static final int PACKET_NUMBER = 0;
+    static final int BUTTONS = 4;
+    static final int LEFT_TRIGGER = 6;
+    static final int RIGHT_TRIGGER = 7;
+    static final int THUMB_LX = 8;
+    static final int THUMB_LY = 10;
+    static final int THUMB_RX = 12;
+    static final int THUMB_RY = 14;
+
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates a view of a buffer holding an XINPUT_STATE struct.
+     *
+     * @param buffer the buffer, in native byte order, with the struct at position 0
+     */
+    XInputStateView(final ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Returns the packet number of the state. XInput increments the packet number whenever the state of the device
+     * changes.
+     *
+     * @return the packet number of the state
+     */
+    public int getPacketNumber() {
+        return buffer.getInt(PACKET_NUMBER);
+    }
+
+    /**
+     * Returns the bit mask of the pressed buttons (see {@link XInputButtons#getMask()}).
+     *
+     * @return the bit mask of the pressed buttons
+     */
+    public int getButtonMask() {
+        return buffer.getShort(BUTTONS) & 0xffff;
+    }
+
+    /**
+     * Determines whether the specified button is pressed.
+     *
+     * @param button the button
+     * @return <code>true</code> if the button is pressed, <code>false</code> otherwise
+     */
+    public boolean isPressed(final XInputButton button) {
+        return (buffer.getShort(BUTTONS) & button.getMask()) != 0;
+    }
+
+    /**
+     * Returns the raw value of the left trigger, from 0 to 255.
+     *
+     * @return the raw value of the left trigger
+     */
+    public int getLeftTrigger() {
+        return buffer.get(LEFT_TRIGGER) & 0xff;
+    }
+
+    /**
+     * Returns the raw value of the right trigger, from 0 to 255.
+     *
+     * @return the raw value of the right trigger
+     */
+    public int getRightTrigger() {
+        return buffer.get(RIGHT_TRIGGER) & 0xff;
+    }
+
+    /**
+     * Returns the raw value of the X axis of the left thumbstick, from -32768 to 32767.
+     *
+     * @return the raw value of the Left Thumb X axis
+     */
+    public int getThumbLX() {
+        return buffer.getShort(THUMB_LX);
+    }
+
+    /**
+     * Returns the raw value of the Y axis of the left thumbstick, from -32768 to 32767.
+     *
+     * @return the raw value of the Left Thumb Y axis
+     */
+    public int getThumbLY() {
+        return buffer.getShort(THUMB_LY);
+    }
+
+    /**
+     * Returns the raw value of the X axis of the right thumbstick, from -32768 to 32767.
+     *
+     * @return the raw value of the Right Thumb X axis
+     */
+    public int getThumbRX() {
+        return buffer.getShort(THUMB_RX);
+    }
+
+    /**
+     * Returns the raw value of the Y axis of the right thumbstick, from -32768 to 32767.
+     *
+     * @return the raw value of the Right Thumb Y axis
+     */
+    public int getThumbRY() {
+        return buffer.getShort(THUMB_RY);
+    }
+
+    /**
+     * Gets the raw value from the specified axis. The {@link XInputAxis#DPAD DPAD} axis is computed from the D-Pad buttons.
+     *
+     * @param axis the axis
+     * @return the raw value of the axis
+     */
+    public int getRaw(final XInputAxis axis) {
+        switch (axis) {
+            case LEFT_THUMBSTICK_X:
+                return getThumbLX();
+            case LEFT_THUMBSTICK_Y:
+                return getThumbLY();
+            case RIGHT_THUMBSTICK_X:
+                return getThumbRX();
+            case RIGHT_THUMBSTICK_Y:
+                return getThumbRY();
+            case LEFT_TRIGGER:
+                return getLeftTrigger();
+            case RIGHT_TRIGGER:
+                return getRightTrigger();
+            case DPAD:
+                final int buttons = buffer.getShort(BUTTONS);
+                return XInputAxes.dpadFromButtons((buttons & XINPUT_GAMEPAD_DPAD_UP) != 0,
+                    (buttons & XINPUT_GAMEPAD_DPAD_DOWN) != 0, (buttons & XINPUT_GAMEPAD_DPAD_LEFT) != 0,
+                    (buttons & XINPUT_GAMEPAD_DPAD_RIGHT) != 0);
+            default:
+                return 0;
+        }
+    }
+}
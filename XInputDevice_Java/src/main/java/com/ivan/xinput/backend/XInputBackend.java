@@ -0,0 +1,114 @@
+package com.ivan.xinput.backend;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Provides access to the XInput functions used by the devices.
+ * <p>
+ * Implementations fill in the given direct buffers with the same layout as the native XInput structures and return
+ * Windows error codes (see {@link com.ivan.xinput.natives.XInputConstants XInputConstants}). Data is always written at
+ * absolute positions starting at index 0; the position and limit of the buffers must not be changed.
+ * <p>
+ * The backend used by the devices is selected by {@link XInputBackends}.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ * @see XInputNativeBackend
+ * @see XInputSimulatedBackend
+ */
+public interface XInputBackend {
+    /**
+     * Determines whether the XInput 1.3 functions are available.
+     *
+     * @return <code>true</code> if the XInput 1.3 functions can be used, <code>false</code> otherwise
+     */
+    boolean isLoaded();
+
+    /**
+     * Retrieves the error that prevented the XInput 1.3 functions from being loaded.
+     *
+     * @return the load error, or <code>null</code> if there was none
+     */
+    Throwable getLoadError();
+
+    /**
+     * Determines whether the XInput 1.4 functions are available.
+     *
+     * @return <code>true</code> if the XInput 1.4 functions can be used, <code>false</code> otherwise
+     */
+    boolean isLoaded14();
+
+    /**
+     * Retrieves the error that prevented the XInput 1.4 functions from being loaded.
+     *
+     * @return the load error, or <code>null</code> if there was none
+     */
+    Throwable getLoadError14();
+
+    /**
+     * Reads the XINPUT_STATE struct of the specified player into the buffer.
+     *
+     * @param playerNum the player number
+     * @param data a direct buffer with room for the XINPUT_STATE struct (16 bytes)
+     * @return the error code
+     */
+    int pollDevice(int playerNum, ByteBuffer data);
+
+    /**
+     * Reads the XINPUT_STATE structs of the specified players into the buffer in a single call.
+     * <p>
+     * The buffer is divided into {@link com.ivan.xinput.natives.XInputConstants#MAX_PLAYERS MAX_PLAYERS} slots of
+     * {@link com.ivan.xinput.natives.XInputConstants#XINPUT_STATE_SLOT_SIZE XINPUT_STATE_SLOT_SIZE} bytes, one per player in
+     * order. Each slot contains the error code of the read as a 4-byte integer, followed by the XINPUT_STATE struct. The
+     * slots of the players that are not in the mask are left untouched.
+     *
+     * @param playerMask the players to read, with bit <code>n</code> set to read player <code>n</code>
+     * @param data a direct buffer with room for the state slots of all players
+     */
+    void pollDevices(int playerMask, ByteBuffer data);
+
+    /**
+     * Sets the vibration of the specified player's device.
+     *
+     * @param playerNum the player number
+     * @param leftMotor the left motor speed, from 0 to 65535
+     * @param rightMotor the right motor speed, from 0 to 65535
+     * @return the error code
+     */
+    int setVibration(int playerNum, int leftMotor, int rightMotor);
+
+    /**
+     * Enables or disables the reporting state of XInput (XInput 1.4 only).
+     *
+     * @param enabled <code>true</code> to enable reporting, <code>false</code> to disable it
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Reads the XINPUT_CAPABILITIES struct of the specified player into the buffer (XInput 1.4 only).
+     *
+     * @param playerNum the player number
+     * @param flags the XInput device flags
+     * @param data a direct buffer with room for the XINPUT_CAPABILITIES struct (20 bytes)
+     * @return the error code
+     */
+    int getCapabilities(int playerNum, int flags, ByteBuffer data);
+
+    /**
+     * Reads the XINPUT_BATTERY_INFORMATION struct of the specified player into the buffer (XInput 1.4 only).
+     *
+     * @param playerNum the player number
+     * @param deviceType the battery device type
+     * @param data a direct buffer with room for the XINPUT_BATTERY_INFORMATION struct (2 bytes)
+     * @return the error code
+     */
+    int getBatteryInformation(int playerNum, int deviceType, ByteBuffer data);
+
+    /**
+     * Reads the next XINPUT_KEYSTROKE struct of the specified player into the buffer (XInput 1.4 only).
+     *
+     * @param playerNum the player number
+     * @param data a direct buffer with room for the XINPUT_KEYSTROKE struct (8 bytes)
+     * @return the error code
+     */
+    int getKeystroke(int playerNum, ByteBuffer data);
+}
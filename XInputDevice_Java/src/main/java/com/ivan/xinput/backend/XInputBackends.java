@@ -0,0 +1,78 @@
+package com.ivan.xinput.backend;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Selects the {@link XInputBackend} used by the XInput devices.
+ * <p>
+ * The backend can be set explicitly with {@link #setBackend(XInputBackend)}. Otherwise, the first backend registered
+ * through {@link ServiceLoader} (in {@code META-INF/services/com.ivan.xinput.backend.XInputBackend}) that reports itself
+ * as loaded is used, falling back to {@link XInputNativeBackend}.
+ * <p>
+ * The backend is resolved the first time it is requested and cannot be changed afterwards, since the devices keep a
+ * reference to it. Call {@link #setBackend(XInputBackend)} before using any device.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public final class XInputBackends {
+    private static XInputBackend backend;
+    private static boolean resolved;
+
+    private XInputBackends() {}
+
+    /**
+     * Sets the backend to be used by the XInput devices.
+     *
+     * @param backend the backend
+     * @throws IllegalStateException if the backend was already resolved
+     */
+    public static synchronized void setBackend(final XInputBackend backend) {
+        if (backend == null) {
+            throw new IllegalArgumentException("Backend cannot be null");
+        }
+        if (resolved) {
+            throw new IllegalStateException("The XInput backend is already in use: " + XInputBackends.backend.getClass().getName());
+        }
+        XInputBackends.backend = backend;
+    }
+
+    /**
+     * Returns the backend used by the XInput devices, resolving it if necessary.
+     *
+     * @return the XInput backend
+     */
+    public static synchronized XInputBackend getBackend() {
+        if (!resolved) {
+            if (backend == null) {
+                backend = discover();
+            }
+            resolved = true;
+        }
+        return backend;
+    }
+
+    /**
+     * Looks up the backends registered through {@link ServiceLoader} and returns the first one that is loaded.
+     *
+     * @return the first loaded backend, or {@link XInputNativeBackend#INSTANCE} if there are none
+     */
+    private static XInputBackend discover() {
+        final Iterator<XInputBackend> it = ServiceLoader.load(XInputBackend.class, XInputBackend.class.getClassLoader()).iterator();
+        while (true) {
+            try {
+                if (!it.hasNext()) {
+                    break;
+                }
+                final XInputBackend candidate = it.next();
+                if (candidate.isLoaded()) {
+                    return candidate;
+                }
+            } catch (final ServiceConfigurationError e) {
+                // skip broken providers
+            }
+        }
+        return XInputNativeBackend.INSTANCE;
+    }
+}
@@ -0,0 +1,123 @@
+package com.ivan.xinput.backend;
+
+import static com.ivan.xinput.natives.XInputConstants.MAX_PLAYERS;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_STATE_SIZE;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_STATE_SLOT_SIZE;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.ivan.xinput.natives.XInputNatives;
+import com.ivan.xinput.natives.XInputNatives14;
+
+/**
+ * Backend that calls the XInput functions through the native libraries bundled with the .jar file.
+ * This is the default backend.
+ * <p>
+ * The bundled native libraries do not export the batched {@link #pollDevices(int, ByteBuffer)} entry point yet, so this
+ * backend polls each requested player with its own native call when the entry point is missing. Rebuild the libraries from
+ * the native sources to read all players in a single call.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public final class XInputNativeBackend implements XInputBackend {
+    public static final XInputNativeBackend INSTANCE = new XInputNativeBackend();
+
+    // Native libraries built before pollDevices was introduced don't export it
+    private volatile boolean pollDevicesSupported = true;
+    private volatile StateSlices slices;
+
+    private XInputNativeBackend() {}
+
+    @Override
+    public boolean isLoaded() {
+        return XInputNatives.isLoaded();
+    }
+
+    @Override
+    public Throwable getLoadError() {
+        return XInputNatives.getLoadError();
+    }
+
+    @Override
+    public boolean isLoaded14() {
+        return XInputNatives14.isLoaded();
+    }
+
+    @Override
+    public Throwable getLoadError14() {
+        return XInputNatives14.getLoadError();
+    }
+
+    @Override
+    public int pollDevice(final int playerNum, final ByteBuffer data) {
+        return XInputNatives.pollDevice(playerNum, data);
+    }
+
+    @Override
+    public void pollDevices(final int playerMask, final ByteBuffer data) {
+        if (pollDevicesSupported) {
+            try {
+                XInputNatives.pollDevices(playerMask, data);
+                return;
+            } catch (final UnsatisfiedLinkError e) {
+                pollDevicesSupported = false;
+            }
+        }
+
+        // fall back to polling each player into its own slot
+        StateSlices slices = this.slices;
+        if (slices == null || slices.data != data) {
+            slices = new StateSlices(data);
+            this.slices = slices;
+        }
+        for (int i = 0; i < MAX_PLAYERS; i++) {
+            if ((playerMask & 1 << i) != 0) {
+                data.putInt(i * XINPUT_STATE_SLOT_SIZE, XInputNatives.pollDevice(i, slices.states[i]));
+            }
+        }
+    }
+
+    @Override
+    public int setVibration(final int playerNum, final int leftMotor, final int rightMotor) {
+        return XInputNatives.setVibration(playerNum, leftMotor, rightMotor);
+    }
+
+    @Override
+    public void setEnabled(final boolean enabled) {
+        XInputNatives14.setEnabled(enabled);
+    }
+
+    @Override
+    public int getCapabilities(final int playerNum, final int flags, final ByteBuffer data) {
+        return XInputNatives14.getCapabilities(playerNum, flags, data);
+    }
+
+    @Override
+    public int getBatteryInformation(final int playerNum, final int deviceType, final ByteBuffer data) {
+        return XInputNatives14.getBatteryInformation(playerNum, deviceType, data);
+    }
+
+    @Override
+    public int getKeystroke(final int playerNum, final ByteBuffer data) {
+        return XInputNatives14.getKeystroke(playerNum, data);
+    }
+
+    /**
+     * Views of the XINPUT_STATE structs within a {@link #pollDevices(int, ByteBuffer)} buffer.
+     */
+    private static final class StateSlices {
+        final ByteBuffer data;
+        final ByteBuffer[] states = new ByteBuffer[MAX_PLAYERS];
+
+        StateSlices(final ByteBuffer data) {
+            this.data = data;
+            final ByteBuffer dup = data.duplicate();
+            for (int i = 0; i < MAX_PLAYERS; i++) {
+                final int offset = i * XINPUT_STATE_SLOT_SIZE + 4;
+                dup.limit(offset + XINPUT_STATE_SIZE).position(offset);
+                states[i] = dup.slice().order(ByteOrder.nativeOrder());
+            }
+        }
+    }
+}
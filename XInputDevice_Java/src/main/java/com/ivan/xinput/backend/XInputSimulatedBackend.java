@@ -0,0 +1,289 @@
+package com.ivan.xinput.backend;
+
+import static com.ivan.xinput.natives.XInputConstants.BATTERY_LEVEL_FULL;
+import static com.ivan.xinput.natives.XInputConstants.BATTERY_TYPE_WIRED;
+import static com.ivan.xinput.natives.XInputConstants.ERROR_DEVICE_NOT_CONNECTED;
+import static com.ivan.xinput.natives.XInputConstants.ERROR_EMPTY;
+import static com.ivan.xinput.natives.XInputConstants.ERROR_SUCCESS;
+import static com.ivan.xinput.natives.XInputConstants.MAX_PLAYERS;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_DEVSUBTYPE_GAMEPAD;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_DEVTYPE_GAMEPAD;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_STATE_SLOT_SIZE;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Backend that keeps the state of the devices in memory, without using any native code.
+ * <p>
+ * The state of each player is controlled through the setter methods of this class. Every change to the state of a
+ * connected device increments its packet number, just like XInput does. All devices start disconnected. Every method
+ * taking a player number throws an {@link IllegalArgumentException} if it is not between 0 and
+ * {@code MAX_PLAYERS - 1}.
+ * <p>
+ * This backend is useful for testing and benchmarking the input pipeline on platforms where XInput is not available.
+ * Install it with {@link XInputBackends#setBackend(XInputBackend)} before using any device.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputSimulatedBackend implements XInputBackend {
+    private final boolean[] connected = new boolean[MAX_PLAYERS];
+    private final int[] packetNumber = new int[MAX_PLAYERS];
+    private final short[] buttons = new short[MAX_PLAYERS];
+    private final byte[] leftTrigger = new byte[MAX_PLAYERS];
+    private final byte[] rightTrigger = new byte[MAX_PLAYERS];
+    private final short[] thumbLX = new short[MAX_PLAYERS];
+    private final short[] thumbLY = new short[MAX_PLAYERS];
+    private final short[] thumbRX = new short[MAX_PLAYERS];
+    private final short[] thumbRY = new short[MAX_PLAYERS];
+    private final int[] leftMotor = new int[MAX_PLAYERS];
+    private final int[] rightMotor = new int[MAX_PLAYERS];
+    private boolean enabled = true;
+
+    @Override
+    public boolean isLoaded() {
+        return true;
+    }
+
+    @Override
+    public Throwable getLoadError() {
+        return null;
+    }
+
+    @Override
+    public boolean isLoaded14() {
+        return true;
+    }
+
+    @Override
+    public Throwable getLoadError14() {
+        return null;
+    }
+
+    /**
+     * Connects or disconnects the device of the specified player. Disconnecting a device resets its state.
+     *
+     * @param playerNum the player number
+     * @param connected <code>true</code> to connect the device, <code>false</code> to disconnect it
+     */
+    public synchronized void setConnected(final int playerNum, final boolean connected) {
+        checkPlayerNum(playerNum);
+        this.connected[playerNum] = connected;
+        if (!connected) {
+            setState(playerNum, 0, 0, 0, 0, 0, 0, 0);
+            leftMotor[playerNum] = rightMotor[playerNum] = 0;
+        }
+    }
+
+    /**
+     * Determines whether the device of the specified player is connected.
+     *
+     * @param playerNum the player number
+     * @return <code>true</code> if the device is connected, <code>false</code> otherwise
+     */
+    public synchronized boolean isConnected(final int playerNum) {
+        checkPlayerNum(playerNum);
+        return connected[playerNum];
+    }
+
+    /**
+     * Sets the state of the buttons of the specified player.
+     *
+     * @param playerNum the player number
+     * @param buttons the button mask, as a combination of the {@code XINPUT_GAMEPAD_*} constants
+     */
+    public synchronized void setButtons(final int playerNum, final int buttons) {
+        checkPlayerNum(playerNum);
+        setState(playerNum, buttons, leftTrigger[playerNum], rightTrigger[playerNum],
+            thumbLX[playerNum], thumbLY[playerNum], thumbRX[playerNum], thumbRY[playerNum]);
+    }
+
+    /**
+     * Sets the state of the triggers of the specified player.
+     *
+     * @param playerNum the player number
+     * @param leftTrigger the left trigger value, from 0 to 255
+     * @param rightTrigger the right trigger value, from 0 to 255
+     */
+    public synchronized void setTriggers(final int playerNum, final int leftTrigger, final int rightTrigger) {
+        checkPlayerNum(playerNum);
+        setState(playerNum, buttons[playerNum], leftTrigger, rightTrigger,
+            thumbLX[playerNum], thumbLY[playerNum], thumbRX[playerNum], thumbRY[playerNum]);
+    }
+
+    /**
+     * Sets the state of the thumbsticks of the specified player.
+     *
+     * @param playerNum the player number
+     * @param lx the left thumbstick X axis value, from -32768 to 32767
+     * @param ly the left thumbstick Y axis value, from -32768 to 32767
+     * @param rx the right thumbstick X axis value, from -32768 to 32767
+     * @param ry the right thumbstick Y axis value, from -32768 to 32767
+     */
+    public synchronized void setThumbs(final int playerNum, final int lx, final int ly, final int rx, final int ry) {
+        checkPlayerNum(playerNum);
+        setState(playerNum, buttons[playerNum], leftTrigger[playerNum], rightTrigger[playerNum], lx, ly, rx, ry);
+    }
+
+    /**
+     * Sets the full gamepad state of the specified player. The packet number is incremented if the device is connected
+     * and the state has changed.
+     *
+     * @param playerNum the player number
+     * @param buttons the button mask, as a combination of the {@code XINPUT_GAMEPAD_*} constants
+     * @param leftTrigger the left trigger value, from 0 to 255
+     * @param rightTrigger the right trigger value, from 0 to 255
+     * @param lx the left thumbstick X axis value, from -32768 to 32767
+     * @param ly the left thumbstick Y axis value, from -32768 to 32767
+     * @param rx the right thumbstick X axis value, from -32768 to 32767
+     * @param ry the right thumbstick Y axis value, from -32768 to 32767
+     */
+    public synchronized void setState(final int playerNum, final int buttons, final int leftTrigger, final int rightTrigger,
+        final int lx, final int ly, final int rx, final int ry) {
+        checkPlayerNum(playerNum);
+        final boolean changed = this.buttons[playerNum] != (short) buttons
+            || this.leftTrigger[playerNum] != (byte) leftTrigger || this.rightTrigger[playerNum] != (byte) rightTrigger
+            || thumbLX[playerNum] != (short) lx || thumbLY[playerNum] != (short) ly
+            || thumbRX[playerNum] != (short) rx || thumbRY[playerNum] != (short) ry;
+        this.buttons[playerNum] = (short) buttons;
+        this.leftTrigger[playerNum] = (byte) leftTrigger;
+        this.rightTrigger[playerNum] = (byte) rightTrigger;
+        thumbLX[playerNum] = (short) lx;
+        thumbLY[playerNum] = (short) ly;
+        thumbRX[playerNum] = (short) rx;
+        thumbRY[playerNum] = (short) ry;
+        if (changed && connected[playerNum]) {
+            packetNumber[playerNum]++;
+        }
+    }
+
+    /**
+     * Retrieves the left motor speed last set on the device of the specified player.
+     *
+     * @param playerNum the player number
+     * @return the left motor speed, from 0 to 65535
+     */
+    public synchronized int getLeftMotor(final int playerNum) {
+        checkPlayerNum(playerNum);
+        return leftMotor[playerNum];
+    }
+
+    /**
+     * Retrieves the right motor speed last set on the device of the specified player.
+     *
+     * @param playerNum the player number
+     * @return the right motor speed, from 0 to 65535
+     */
+    public synchronized int getRightMotor(final int playerNum) {
+        checkPlayerNum(playerNum);
+        return rightMotor[playerNum];
+    }
+
+    @Override
+    public synchronized int pollDevice(final int playerNum, final ByteBuffer data) {
+        checkPlayerNum(playerNum);
+        return readState(playerNum, data, 0);
+    }
+
+    @Override
+    public synchronized void pollDevices(final int playerMask, final ByteBuffer data) {
+        for (int i = 0; i < MAX_PLAYERS; i++) {
+            if ((playerMask & 1 << i) != 0) {
+                final int offset = i * XINPUT_STATE_SLOT_SIZE;
+                data.putInt(offset, readState(i, data, offset + 4));
+            }
+        }
+    }
+
+    @Override
+    public synchronized int setVibration(final int playerNum, final int leftMotor, final int rightMotor) {
+        checkPlayerNum(playerNum);
+        if (!connected[playerNum]) {
+            return ERROR_DEVICE_NOT_CONNECTED;
+        }
+        if (enabled) {
+            this.leftMotor[playerNum] = leftMotor;
+            this.rightMotor[playerNum] = rightMotor;
+        }
+        return ERROR_SUCCESS;
+    }
+
+    @Override
+    public synchronized void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public synchronized int getCapabilities(final int playerNum, final int flags, final ByteBuffer data) {
+        checkPlayerNum(playerNum);
+        if (!connected[playerNum]) {
+            return ERROR_DEVICE_NOT_CONNECTED;
+        }
+        // XINPUT_CAPABILITIES: a wired gamepad supporting all documented buttons at full resolution
+        data.put(0, XINPUT_DEVTYPE_GAMEPAD);
+        data.put(1, XINPUT_DEVSUBTYPE_GAMEPAD);
+        data.putShort(2, (short) 0);
+        data.putShort(4, (short) 0xF3FF);
+        data.put(6, (byte) 0xFF);
+        data.put(7, (byte) 0xFF);
+        data.putShort(8, (short) 0xFFFF);
+        data.putShort(10, (short) 0xFFFF);
+        data.putShort(12, (short) 0xFFFF);
+        data.putShort(14, (short) 0xFFFF);
+        data.putShort(16, (short) 0xFFFF);
+        data.putShort(18, (short) 0xFFFF);
+        return ERROR_SUCCESS;
+    }
+
+    @Override
+    public synchronized int getBatteryInformation(final int playerNum, final int deviceType, final ByteBuffer data) {
+        checkPlayerNum(playerNum);
+        if (!connected[playerNum]) {
+            return ERROR_DEVICE_NOT_CONNECTED;
+        }
+        data.put(0, BATTERY_TYPE_WIRED);
+        data.put(1, BATTERY_LEVEL_FULL);
+        return ERROR_SUCCESS;
+    }
+
+    @Override
+    public synchronized int getKeystroke(final int playerNum, final ByteBuffer data) {
+        checkPlayerNum(playerNum);
+        if (!connected[playerNum]) {
+            return ERROR_DEVICE_NOT_CONNECTED;
+        }
+        return ERROR_EMPTY;
+    }
+
+    private int readState(final int playerNum, final ByteBuffer data, final int offset) {
+        if (!connected[playerNum]) {
+            writeState(data, offset, 0, 0, 0, 0, 0, 0, 0, 0);
+            return ERROR_DEVICE_NOT_CONNECTED;
+        }
+        if (enabled) {
+            writeState(data, offset, packetNumber[playerNum], buttons[playerNum], leftTrigger[playerNum], rightTrigger[playerNum],
+                thumbLX[playerNum], thumbLY[playerNum], thumbRX[playerNum], thumbRY[playerNum]);
+        } else {
+            writeState(data, offset, packetNumber[playerNum], 0, 0, 0, 0, 0, 0, 0);
+        }
+        return ERROR_SUCCESS;
+    }
+
+    private static void writeState(final ByteBuffer data, final int offset, final int packetNumber, final int buttons,
+        final int leftTrigger, final int rightTrigger, final int lx, final int ly, final int rx, final int ry) {
+        // XINPUT_STATE
+        data.putInt(offset, packetNumber);
+        data.putShort(offset + 4, (short) buttons);
+        data.put(offset + 6, (byte) leftTrigger);
+        data.put(offset + 7, (byte) rightTrigger);
+        data.putShort(offset + 8, (short) lx);
+        data.putShort(offset + 10, (short) ly);
+        data.putShort(offset + 12, (short) rx);
+        data.putShort(offset + 14, (short) ry);
+    }
+
+    private static void checkPlayerNum(final int playerNum) {
+        if (playerNum < 0 || playerNum >= MAX_PLAYERS) {
+            throw new IllegalArgumentException("Invalid player number: " + playerNum + ". Must be between 0 and " + (MAX_PLAYERS - 1));
+        }
+    }
+}
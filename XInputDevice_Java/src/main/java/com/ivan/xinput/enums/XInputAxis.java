@@ -10,4 +10,17 @@ public enum XInputAxis {
     RIGHT_THUMBSTICK_X, RIGHT_THUMBSTICK_Y,
     LEFT_TRIGGER, RIGHT_TRIGGER,
     DPAD;
+
+    private static final XInputAxis[] VALUES = values();
+
+    /**
+     * Retrieves the axis with the given ordinal. This method does not allocate memory, unlike {@link #values()}.
+     *
+     * @param ordinal the ordinal of the axis
+     * @return the axis with the given ordinal
+     * @throws ArrayIndexOutOfBoundsException if the ordinal is out of range
+     */
+    public static XInputAxis fromOrdinal(final int ordinal) {
+        return VALUES[ordinal];
+    }
 }
@@ -1,15 +1,62 @@
 package com.ivan.xinput.enums;
 
+import com.ivan.xinput.natives.XInputConstants;
+
 /**
  * Enumerates all XInput buttons.
  * 
  * @author Ivan "StrikerX3" Oliveira
  */
 public enum XInputButton {
-	A, B, X, Y,
-	BACK, START,
-	LEFT_SHOULDER, RIGHT_SHOULDER,
-	LEFT_THUMBSTICK, RIGHT_THUMBSTICK,
-	DPAD_UP, DPAD_DOWN, DPAD_LEFT, DPAD_RIGHT,
-	GUIDE_BUTTON, UNKNOWN;
+	A(XInputConstants.XINPUT_GAMEPAD_A),
+	B(XInputConstants.XINPUT_GAMEPAD_B),
+	X(XInputConstants.XINPUT_GAMEPAD_X),
+	Y(XInputConstants.XINPUT_GAMEPAD_Y),
+	BACK(XInputConstants.XINPUT_GAMEPAD_BACK),
+	START(XInputConstants.XINPUT_GAMEPAD_START),
+	LEFT_SHOULDER(XInputConstants.XINPUT_GAMEPAD_LEFT_SHOULDER),
+	RIGHT_SHOULDER(XInputConstants.XINPUT_GAMEPAD_RIGHT_SHOULDER),
+	LEFT_THUMBSTICK(XInputConstants.XINPUT_GAMEPAD_LEFT_THUMB),
+	RIGHT_THUMBSTICK(XInputConstants.XINPUT_GAMEPAD_RIGHT_THUMB),
+	DPAD_UP(XInputConstants.XINPUT_GAMEPAD_DPAD_UP),
+	DPAD_DOWN(XInputConstants.XINPUT_GAMEPAD_DPAD_DOWN),
+	DPAD_LEFT(XInputConstants.XINPUT_GAMEPAD_DPAD_LEFT),
+	DPAD_RIGHT(XInputConstants.XINPUT_GAMEPAD_DPAD_RIGHT),
+	GUIDE_BUTTON(XInputConstants.XINPUT_GAMEPAD_GUIDE_BUTTON),
+	UNKNOWN(XInputConstants.XINPUT_GAMEPAD_UNKNOWN);
+
+	private static final XInputButton[] BY_BIT = new XInputButton[16];
+
+	static {
+		for (final XInputButton button : values()) {
+			BY_BIT[Integer.numberOfTrailingZeros(button.mask)] = button;
+		}
+	}
+
+	private final int mask;
+
+	XInputButton(final short mask) {
+		this.mask = mask & 0xffff;
+	}
+
+	/**
+	 * Retrieves the bit mask of this button in the {@code wButtons} field of the XINPUT_GAMEPAD struct.
+	 *
+	 * @return the bit mask of this button
+	 */
+	public int getMask() {
+		return mask;
+	}
+
+	/**
+	 * Retrieves the button corresponding to the given bit of the {@code wButtons} field of the XINPUT_GAMEPAD struct.
+	 * This method does not allocate memory, unlike iterating over {@link #values()}.
+	 *
+	 * @param bit the bit index, from 0 to 15
+	 * @return the button mapped to the bit
+	 * @throws ArrayIndexOutOfBoundsException if the bit index is out of range
+	 */
+	public static XInputButton fromBit(final int bit) {
+		return BY_BIT[bit];
+	}
 }
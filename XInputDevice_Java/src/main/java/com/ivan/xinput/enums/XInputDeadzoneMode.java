@@ -0,0 +1,24 @@
+package com.ivan.xinput.enums;
+
+/**
+ * Enumerates the ways a deadzone can be applied to a thumbstick.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public enum XInputDeadzoneMode {
+    /**
+     * Each axis is zeroed independently while its value is inside the deadzone, and rescaled to the full range outside of
+     * it. Keeps the sticks snapping to the axes, but makes the deadzone square.
+     */
+    AXIAL,
+    /**
+     * Both axes are zeroed while the stick is inside a circular deadzone, and passed through unchanged outside of it. The
+     * output jumps from zero to the deadzone radius at its edge.
+     */
+    RADIAL,
+    /**
+     * Both axes are zeroed while the stick is inside a circular deadzone, and the magnitude is rescaled to the full range
+     * outside of it, keeping the direction. Gives smooth output from the edge of the deadzone.
+     */
+    SCALED_RADIAL;
+}
@@ -0,0 +1,22 @@
+package com.ivan.xinput.listener;
+
+import com.ivan.xinput.enums.XInputButton;
+
+/**
+ * Provides empty implementations of all {@link XInputTimestampedListener} methods for easier subclassing.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class SimpleXInputTimestampedListener extends SimpleXInputDeviceListener implements XInputTimestampedListener {
+    @Override
+    public void connected(final long timestamp) {
+    }
+
+    @Override
+    public void disconnected(final long timestamp) {
+    }
+
+    @Override
+    public void buttonChanged(final XInputButton button, final boolean pressed, final long timestamp) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.ivan.xinput.listener;
+
+import com.ivan.xinput.enums.XInputAxis;
+
+/**
+ * Listens to changes in the axes of an XInput device.
+ * <p>
+ * Axis listeners are registered with a threshold for each axis, and are only notified when an axis has moved by more
+ * than its threshold since the last value reported to the listener, which filters out small stick jitter.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public interface XInputAxisListener {
+    /**
+     * Called when an axis changes by more than its threshold.
+     *
+     * @param axis the axis
+     * @param value the new value of the axis
+     * @param delta the difference between the new value and the value last reported to this listener
+     */
+    void axisChanged(final XInputAxis axis, final float value, final float delta);
+}
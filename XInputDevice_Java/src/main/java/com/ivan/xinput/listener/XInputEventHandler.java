@@ -0,0 +1,21 @@
+package com.ivan.xinput.listener;
+
+import com.ivan.xinput.XInputEventQueue;
+
+/**
+ * Receives the events drained from an {@link XInputEventQueue}.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public interface XInputEventHandler {
+    /**
+     * Called for each event drained from the queue.
+     *
+     * @param playerNum the player number of the device that produced the event
+     * @param type the event type, one of the constants in {@link XInputEventQueue}
+     * @param code the button bit or axis ordinal, depending on the event type
+     * @param value the event value, depending on the event type
+     * @param timestamp the {@link System#nanoTime()} of the poll that produced the event
+     */
+    void event(final int playerNum, final int type, final int code, final float value, final long timestamp);
+}
@@ -0,0 +1,30 @@
+package com.ivan.xinput.listener;
+
+import com.ivan.xinput.XInputDevice;
+import com.ivan.xinput.enums.XInputAxis;
+import com.ivan.xinput.enums.XInputButton;
+
+/**
+ * Listens to the changes in the state of an XInput device, receiving all changes of a poll in a single call.
+ * <p>
+ * Unlike {@link XInputDeviceListener}, which is called once for every button that changed, this listener is called once
+ * per poll in which any button or axis changed, so that the whole controller can be handled in one pass. The current
+ * state can be read from the {@link XInputDevice#getComponents() components} of the device, or with
+ * {@link XInputDevice#readSnapshot(com.ivan.xinput.XInputSnapshot)} if the listeners run on an executor.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public interface XInputStateListener {
+    /**
+     * Called when the state of the device changed.
+     *
+     * @param device the device
+     * @param pressedMask the {@link XInputButton#getMask() masks} of the buttons that were pressed
+     * @param releasedMask the {@link XInputButton#getMask() masks} of the buttons that were released
+     * @param dirtyAxes the axes that changed, with bit <code>n</code> set for the axis whose {@link XInputAxis#ordinal()
+     *            ordinal} is <code>n</code>
+     * @param timestamp the {@link System#nanoTime()} of the poll that detected the change
+     */
+    void stateChanged(final XInputDevice device, final int pressedMask, final int releasedMask, final int dirtyAxes,
+        final long timestamp);
+}
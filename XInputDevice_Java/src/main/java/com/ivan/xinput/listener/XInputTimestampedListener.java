@@ -0,0 +1,38 @@
+package com.ivan.xinput.listener;
+
+import com.ivan.xinput.enums.XInputButton;
+
+/**
+ * Listens to all XInput events, along with the time at which they were detected.
+ * <p>
+ * Timestamps are {@link System#nanoTime()} values taken right after the device state was read, so they are monotonic and
+ * can be compared across devices. Devices call the timestamped methods instead of the ones inherited from
+ * {@link XInputDeviceListener}. The {@link SimpleXInputTimestampedListener} class provides empty implementations of the
+ * methods in this interface for easier subclassing.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public interface XInputTimestampedListener extends XInputDeviceListener {
+    /**
+     * Called when the device is connected.
+     *
+     * @param timestamp the {@link System#nanoTime()} of the poll that detected the connection
+     */
+    void connected(final long timestamp);
+
+    /**
+     * Called when the device is disconnected.
+     *
+     * @param timestamp the {@link System#nanoTime()} of the poll that detected the disconnection
+     */
+    void disconnected(final long timestamp);
+
+    /**
+     * Called when a button is pressed or released.
+     *
+     * @param button the button
+     * @param pressed <code>true</code> if the button was pressed, <code>false</code> if released.
+     * @param timestamp the {@link System#nanoTime()} of the poll that detected the change
+     */
+    void buttonChanged(final XInputButton button, final boolean pressed, final long timestamp);
+}
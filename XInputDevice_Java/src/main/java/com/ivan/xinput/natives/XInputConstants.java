@@ -13,6 +13,10 @@ public final class XInputConstants {
 
     public static final int MAX_PLAYERS = 4;
 
+    // Struct sizes
+    public static final int XINPUT_STATE_SIZE = 16;// sizeof(XINPUT_STATE)
+    public static final int XINPUT_STATE_SLOT_SIZE = 4 + XINPUT_STATE_SIZE;// DWORD return code + XINPUT_STATE, used by pollDevices
+
     // Controller button masks
     public static final short XINPUT_GAMEPAD_DPAD_UP = 0x0001;
     public static final short XINPUT_GAMEPAD_DPAD_DOWN = 0x0002;
@@ -31,6 +35,11 @@ public final class XInputConstants {
     public static final short XINPUT_GAMEPAD_X = 0x4000;
     public static final short XINPUT_GAMEPAD_Y = (short) 0x8000;
 
+    // Gamepad thresholds
+    public static final int XINPUT_GAMEPAD_LEFT_THUMB_DEADZONE = 7849;
+    public static final int XINPUT_GAMEPAD_RIGHT_THUMB_DEADZONE = 8689;
+    public static final int XINPUT_GAMEPAD_TRIGGER_THRESHOLD = 30;
+
     // Device types
     public static final byte XINPUT_DEVTYPE_GAMEPAD = 0x01;
 
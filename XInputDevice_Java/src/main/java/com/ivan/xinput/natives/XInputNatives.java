@@ -44,6 +44,10 @@ public final class XInputNatives {
     // https://msdn.microsoft.com/en-us/library/windows/desktop/microsoft.directx_sdk.reference.xinputgetstate(v=vs.85).aspx
     public static native int pollDevice(int playerNum, ByteBuffer data);
 
+    // Polls the players whose bits are set in playerMask at once. For each player, the buffer contains the return code of
+    // XInputGetState followed by the XINPUT_STATE struct (see XInputConstants.XINPUT_STATE_SLOT_SIZE)
+    public static native void pollDevices(int playerMask, ByteBuffer data);
+
     // https://msdn.microsoft.com/en-us/library/windows/desktop/microsoft.directx_sdk.reference.xinputsetstate(v=vs.85).aspx
     public static native int setVibration(int playerNum, int leftMotor, int rightMotor);
 }
@@ -0,0 +1,114 @@
+package com.ivan.xinput.pipeline;
+
+import com.ivan.xinput.XInputAxes;
+import com.ivan.xinput.XInputComponents;
+
+/**
+ * Applies {@link XInputResponseCurve response curves} to the normalized thumbstick and trigger values.
+ * <p>
+ * The curves are compiled into lookup tables when the stage is created: 256 entries for the triggers and
+ * {@value #STICK_STEPS} entries for the magnitude of the thumbsticks. The output is interpolated linearly between adjacent
+ * entries, so steep curves do not read as steps. The cost does not depend on the complexity of the curve: each trigger
+ * takes two array loads, and each thumbstick takes a square root, two array loads, a division and two multiplications,
+ * or nothing at all while it rests at the center. The tables are indexed by the normalized values, so the stage must run
+ * after {@link XInputNormalizeStage} or {@link XInputDeadzoneStage}.
+ * <p>
+ * The stick curve is applied to the magnitude of each thumbstick, and the position is scaled to the new magnitude, so the
+ * direction of the stick is preserved. Applying it to each axis independently would bend diagonal motion towards the axes.
+ * Magnitudes above 1, such as the corners of a stick without a {@link XInputDeadzoneStage deadzone}, read as 1.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputCurveStage implements XInputStage {
+    /**
+     * The number of entries in the thumbstick table.
+     */
+    public static final int STICK_STEPS = 4096;
+    private static final int TRIGGER_STEPS = 256;
+
+    private final float[] stickTable = new float[STICK_STEPS];
+    private final float[] triggerTable = new float[TRIGGER_STEPS];
+
+    /**
+     * Creates a stage that applies the same curve to the thumbsticks and triggers.
+     *
+     * @param curve the curve
+     */
+    public XInputCurveStage(final XInputResponseCurve curve) {
+        this(curve, curve);
+    }
+
+    /**
+     * Creates a stage.
+     *
+     * @param stickCurve the curve applied to the thumbsticks
+     * @param triggerCurve the curve applied to the triggers
+     */
+    public XInputCurveStage(final XInputResponseCurve stickCurve, final XInputResponseCurve triggerCurve) {
+        compile(stickCurve, stickTable);
+        compile(triggerCurve, triggerTable);
+    }
+
+    private static void compile(final XInputResponseCurve curve, final float[] table) {
+        final int last = table.length - 1;
+        for (int i = 0; i <= last; i++) {
+            table[i] = Math.max(0f, Math.min(1f, curve.apply((float) i / last)));
+        }
+    }
+
+    @Override
+    public boolean isNormalizing() {
+        return false;
+    }
+
+    @Override
+    public boolean isContinuous() {
+        return false;
+    }
+
+    @Override
+    public void process(final XInputComponents components) {
+        final XInputAxes axes = components.getAxes();
+        final float leftScale = stickScale(axes.lx, axes.ly);
+        axes.lx *= leftScale;
+        axes.ly *= leftScale;
+        final float rightScale = stickScale(axes.rx, axes.ry);
+        axes.rx *= rightScale;
+        axes.ry *= rightScale;
+        axes.lt = trigger(axes.lt);
+        axes.rt = trigger(axes.rt);
+    }
+
+    /**
+     * Computes the factor by which a stick position is scaled to apply the curve to its magnitude.
+     */
+    private float stickScale(final float x, final float y) {
+        final float magSq = x * x + y * y;
+        if (magSq == 0f) {
+            return 0f;
+        }
+        final float mag = (float) Math.sqrt(magSq);
+        return lookup(stickTable, mag) / mag;
+    }
+
+    private float trigger(final float value) {
+        return lookup(triggerTable, value);
+    }
+
+    /**
+     * Looks up a value from 0 to 1 in a table, interpolating between the two nearest entries.
+     */
+    private static float lookup(final float[] table, final float value) {
+        final int last = table.length - 1;
+        if (!(value > 0f)) {
+            return table[0];
+        }
+        if (value >= 1f) {
+            return table[last];
+        }
+        final float position = value * last;
+        final int i = Math.min((int) position, last - 1);// values just below 1 may round up to the last entry
+        final float low = table[i];
+        return low + (position - i) * (table[i + 1] - low);
+    }
+}
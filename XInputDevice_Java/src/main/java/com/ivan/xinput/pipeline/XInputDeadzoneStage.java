@@ -0,0 +1,152 @@
+package com.ivan.xinput.pipeline;
+
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_LEFT_THUMB_DEADZONE;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_RIGHT_THUMB_DEADZONE;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_TRIGGER_THRESHOLD;
+
+import com.ivan.xinput.XInputAxes;
+import com.ivan.xinput.XInputComponents;
+import com.ivan.xinput.enums.XInputDeadzoneMode;
+
+/**
+ * Applies deadzones to the thumbsticks and triggers.
+ * <p>
+ * The stage computes the normalized axis values from the raw values, so it takes the place of
+ * {@link XInputNormalizeStage} in a pipeline. Deadzones are given in normalized units:
+ * <ul>
+ * <li>the inner deadzone of each stick is the magnitude (or, in {@link XInputDeadzoneMode#AXIAL AXIAL} mode, the axis
+ * value) below which the stick reads zero</li>
+ * <li>the outer deadzone is the magnitude above which the stick reads the maximum value, to make up for sticks that do not
+ * reach the edges of their range</li>
+ * <li>the trigger threshold is the value below which the triggers read zero</li>
+ * </ul>
+ * Values between the deadzones are rescaled to the full range, except in {@link XInputDeadzoneMode#RADIAL RADIAL} mode.
+ * Sticks inside their inner deadzone are detected with the squared magnitude, so resting sticks cost no square root. The
+ * triggers are looked up in a table computed when the stage is created.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputDeadzoneStage implements XInputStage {
+    /**
+     * The default inner deadzone of the left thumbstick, from {@code XINPUT_GAMEPAD_LEFT_THUMB_DEADZONE}.
+     */
+    public static final float DEFAULT_LEFT_DEADZONE = XINPUT_GAMEPAD_LEFT_THUMB_DEADZONE / 32768f;
+    /**
+     * The default inner deadzone of the right thumbstick, from {@code XINPUT_GAMEPAD_RIGHT_THUMB_DEADZONE}.
+     */
+    public static final float DEFAULT_RIGHT_DEADZONE = XINPUT_GAMEPAD_RIGHT_THUMB_DEADZONE / 32768f;
+    /**
+     * The default threshold of the triggers, from {@code XINPUT_GAMEPAD_TRIGGER_THRESHOLD}.
+     */
+    public static final float DEFAULT_TRIGGER_THRESHOLD = XINPUT_GAMEPAD_TRIGGER_THRESHOLD / 255f;
+
+    private final XInputDeadzoneMode mode;
+    private final float leftInner, rightInner;
+    private final float leftInnerSq, rightInnerSq;
+    private final float outer, outerSq;
+    private final float[] triggers = new float[256];// indexed by the raw trigger value
+
+    /**
+     * Creates a deadzone stage with the default deadzones recommended by XInput, in
+     * {@link XInputDeadzoneMode#SCALED_RADIAL SCALED_RADIAL} mode and without an outer deadzone.
+     */
+    public XInputDeadzoneStage() {
+        this(XInputDeadzoneMode.SCALED_RADIAL, DEFAULT_LEFT_DEADZONE, DEFAULT_RIGHT_DEADZONE, 1f, DEFAULT_TRIGGER_THRESHOLD);
+    }
+
+    /**
+     * Creates a deadzone stage.
+     *
+     * @param mode how the deadzones are applied to the thumbsticks
+     * @param leftInner the inner deadzone of the left thumbstick, from 0 to 1
+     * @param rightInner the inner deadzone of the right thumbstick, from 0 to 1
+     * @param outer the magnitude at which the thumbsticks read the maximum value, greater than both inner deadzones and up
+     *            to 1 (1 disables the outer deadzone)
+     * @param triggerThreshold the value below which the triggers read zero, from 0 to 1
+     * @throws IllegalArgumentException if the deadzones are out of range
+     */
+    public XInputDeadzoneStage(final XInputDeadzoneMode mode, final float leftInner, final float rightInner,
+        final float outer, final float triggerThreshold) {
+        if (!(leftInner >= 0f && rightInner >= 0f && outer > leftInner && outer > rightInner && outer <= 1f)) {
+            throw new IllegalArgumentException("Invalid thumbstick deadzones: " + leftInner + ", " + rightInner + ", " + outer);
+        }
+        if (!(triggerThreshold >= 0f && triggerThreshold < 1f)) {
+            throw new IllegalArgumentException("Invalid trigger threshold: " + triggerThreshold);
+        }
+        this.mode = mode;
+        this.leftInner = leftInner;
+        this.rightInner = rightInner;
+        leftInnerSq = leftInner * leftInner;
+        rightInnerSq = rightInner * rightInner;
+        this.outer = outer;
+        outerSq = outer * outer;
+
+        for (int raw = 0; raw < triggers.length; raw++) {
+            final float value = raw / 255f;
+            triggers[raw] = value <= triggerThreshold ? 0f : Math.min(1f, (value - triggerThreshold) / (1f - triggerThreshold));
+        }
+    }
+
+    @Override
+    public boolean isNormalizing() {
+        return true;
+    }
+
+    @Override
+    public boolean isContinuous() {
+        return false;
+    }
+
+    @Override
+    public void process(final XInputComponents components) {
+        final XInputAxes axes = components.getAxes();
+        axes.lt = triggers[axes.ltRaw & 0xff];
+        axes.rt = triggers[axes.rtRaw & 0xff];
+
+        final float lx = axes.lxRaw / 32768f;
+        final float ly = axes.lyRaw / 32768f;
+        final float rx = axes.rxRaw / 32768f;
+        final float ry = axes.ryRaw / 32768f;
+        if (mode == XInputDeadzoneMode.AXIAL) {
+            axes.lx = axial(lx, leftInner);
+            axes.ly = axial(ly, leftInner);
+            axes.rx = axial(rx, rightInner);
+            axes.ry = axial(ry, rightInner);
+        } else {
+            final float leftScale = radialScale(lx, ly, leftInner, leftInnerSq);
+            axes.lx = lx * leftScale;
+            axes.ly = ly * leftScale;
+            final float rightScale = radialScale(rx, ry, rightInner, rightInnerSq);
+            axes.rx = rx * rightScale;
+            axes.ry = ry * rightScale;
+        }
+    }
+
+    /**
+     * Computes the factor by which a stick position is scaled in the radial modes.
+     */
+    private float radialScale(final float x, final float y, final float inner, final float innerSq) {
+        final float magSq = x * x + y * y;
+        if (magSq <= innerSq) {
+            return 0f;
+        }
+        if (mode == XInputDeadzoneMode.RADIAL && magSq < outerSq) {
+            return 1f;
+        }
+        final float mag = (float) Math.sqrt(magSq);
+        if (magSq >= outerSq) {
+            // saturate to a magnitude of 1
+            return 1f / mag;
+        }
+        return (mag - inner) / (outer - inner) / mag;
+    }
+
+    private float axial(final float value, final float inner) {
+        final float abs = Math.abs(value);
+        if (abs <= inner) {
+            return 0f;
+        }
+        final float scaled = abs >= outer ? 1f : (abs - inner) / (outer - inner);
+        return value < 0f ? -scaled : scaled;
+    }
+}
@@ -0,0 +1,49 @@
+package com.ivan.xinput.pipeline;
+
+/**
+ * Smooths the thumbsticks with an exponential moving average, a first-order low-pass filter with a fixed cutoff frequency.
+ * <p>
+ * The filter removes jitter effectively, but adds the same delay to fast and slow motion. See
+ * {@link XInputOneEuroFilterStage} for a filter that adapts to the speed of the sticks.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputEmaFilterStage extends XInputFilterStage {
+    private final float cutoff;
+    private final float[] values = new float[4];// filtered values, indexed by axis
+
+    /**
+     * Creates an exponential moving average filter.
+     *
+     * @param cutoff the cutoff frequency, in Hz; lower values smooth more
+     * @throws IllegalArgumentException if the cutoff frequency is not positive
+     */
+    public XInputEmaFilterStage(final float cutoff) {
+        super(cutoff);
+        if (!(cutoff > 0f)) {
+            throw new IllegalArgumentException("Invalid cutoff frequency: " + cutoff);
+        }
+        this.cutoff = cutoff;
+    }
+
+    @Override
+    protected void reset(final float lx, final float ly, final float rx, final float ry) {
+        values[0] = lx;
+        values[1] = ly;
+        values[2] = rx;
+        values[3] = ry;
+    }
+
+    @Override
+    protected float filter(final int axis, final float value, final float dt) {
+        final float last = values[axis];
+        final float filtered = last + alpha(cutoff, dt) * (value - last);
+        values[axis] = filtered;
+        return filtered;
+    }
+
+    @Override
+    protected float output(final int axis) {
+        return values[axis];
+    }
+}
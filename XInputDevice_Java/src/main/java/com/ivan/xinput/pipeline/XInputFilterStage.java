@@ -0,0 +1,116 @@
+package com.ivan.xinput.pipeline;
+
+import com.ivan.xinput.XInputAxes;
+import com.ivan.xinput.XInputComponents;
+
+/**
+ * Base class for stages that smooth the normalized thumbstick values over time, using the
+ * {@link XInputComponents#getTimestamp() timestamps} of the polls.
+ * <p>
+ * Filters keep their state in primitive fields, so a filter stage must only be used by one device. Since a filtered value
+ * keeps changing after the stick stops moving, devices run pipelines containing filter stages on every poll, not only when
+ * XInput reports a new state. Filters must run after the stages that compute the normalized values, such as
+ * {@link XInputNormalizeStage} or {@link XInputDeadzoneStage}. The state of the filter is reset when the device has not
+ * been polled for ten time constants of the slowest low-pass filter, for example after it is reconnected. By then the
+ * filter would take more than 90% of the new value anyway, so the reset only drops state that no longer describes the
+ * stick.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public abstract class XInputFilterStage implements XInputStage {
+    private static final double RESET_TIME_CONSTANTS = 10;
+
+    private final long resetInterval;// in nanoseconds
+    private long lastTimestamp;
+    private boolean initialized;
+
+    /**
+     * Creates a filter stage.
+     *
+     * @param cutoff the lowest cutoff frequency used by the filter, in Hz, which determines how long the device may go
+     *        without being polled before the state of the filter is reset
+     */
+    protected XInputFilterStage(final float cutoff) {
+        final double tau = 1 / (2 * Math.PI * cutoff);
+        resetInterval = (long) (RESET_TIME_CONSTANTS * tau * 1e9);
+    }
+
+    @Override
+    public boolean isNormalizing() {
+        return false;
+    }
+
+    @Override
+    public boolean isContinuous() {
+        return true;
+    }
+
+    @Override
+    public void process(final XInputComponents components) {
+        final XInputAxes axes = components.getAxes();
+        final long timestamp = components.getTimestamp();
+        final long elapsed = timestamp - lastTimestamp;
+        if (!initialized || elapsed > resetInterval || elapsed < 0) {
+            reset(axes.lx, axes.ly, axes.rx, axes.ry);
+            lastTimestamp = timestamp;
+            initialized = true;
+            return;
+        }
+        if (elapsed == 0) {
+            // same poll; keep the current output
+            axes.lx = output(0);
+            axes.ly = output(1);
+            axes.rx = output(2);
+            axes.ry = output(3);
+            return;
+        }
+        lastTimestamp = timestamp;
+
+        final float dt = elapsed / 1e9f;
+        axes.lx = filter(0, axes.lx, dt);
+        axes.ly = filter(1, axes.ly, dt);
+        axes.rx = filter(2, axes.rx, dt);
+        axes.ry = filter(3, axes.ry, dt);
+    }
+
+    /**
+     * Resets the filter to the given values.
+     *
+     * @param lx the left thumbstick X value
+     * @param ly the left thumbstick Y value
+     * @param rx the right thumbstick X value
+     * @param ry the right thumbstick Y value
+     */
+    protected abstract void reset(final float lx, final float ly, final float rx, final float ry);
+
+    /**
+     * Filters a new value of an axis.
+     *
+     * @param axis the index of the axis: 0 for left X, 1 for left Y, 2 for right X and 3 for right Y
+     * @param value the new value
+     * @param dt the time since the last value, in seconds
+     * @return the filtered value
+     */
+    protected abstract float filter(final int axis, final float value, final float dt);
+
+    /**
+     * Returns the last filtered value of an axis.
+     *
+     * @param axis the index of the axis, as in {@link #filter(int, float, float)}
+     * @return the last filtered value
+     */
+    protected abstract float output(final int axis);
+
+    /**
+     * Computes the smoothing factor of a low-pass filter with the given cutoff frequency for a sample taken after the given
+     * time.
+     *
+     * @param cutoff the cutoff frequency, in Hz
+     * @param dt the time since the last sample, in seconds
+     * @return the smoothing factor, from 0 (keep the last value) to 1 (take the new value)
+     */
+    protected static float alpha(final float cutoff, final float dt) {
+        final float tau = 1f / (2f * (float) Math.PI * cutoff);
+        return dt / (dt + tau);
+    }
+}
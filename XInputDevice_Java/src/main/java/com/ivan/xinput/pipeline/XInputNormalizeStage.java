@@ -0,0 +1,32 @@
+package com.ivan.xinput.pipeline;
+
+import com.ivan.xinput.XInputAxes;
+import com.ivan.xinput.XInputComponents;
+
+/**
+ * Fills in the normalized axis values from the raw values: thumbsticks range from -1 to 1 and triggers range from 0 to 1.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputNormalizeStage implements XInputStage {
+    @Override
+    public boolean isNormalizing() {
+        return true;
+    }
+
+    @Override
+    public boolean isContinuous() {
+        return false;
+    }
+
+    @Override
+    public void process(final XInputComponents components) {
+        final XInputAxes axes = components.getAxes();
+        axes.lx = axes.lxRaw / 32768f;
+        axes.ly = axes.lyRaw / 32768f;
+        axes.rx = axes.rxRaw / 32768f;
+        axes.ry = axes.ryRaw / 32768f;
+        axes.lt = (axes.ltRaw & 0xff) / 255f;
+        axes.rt = (axes.rtRaw & 0xff) / 255f;
+    }
+}
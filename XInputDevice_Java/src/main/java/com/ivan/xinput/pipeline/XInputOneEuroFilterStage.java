@@ -0,0 +1,74 @@
+package com.ivan.xinput.pipeline;
+
+/**
+ * Smooths the thumbsticks with the One Euro filter, a low-pass filter whose cutoff frequency rises with the speed of the
+ * stick: slow motion is heavily smoothed to remove jitter, while fast motion is followed with little delay.
+ * <p>
+ * The cutoff frequency is <code>minCutoff + beta * |speed|</code>, where the speed is itself low-pass filtered with the
+ * derivative cutoff frequency. Start by tuning <code>minCutoff</code> with the stick held still, then raise
+ * <code>beta</code> until fast motion no longer lags.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputOneEuroFilterStage extends XInputFilterStage {
+    private final float minCutoff;
+    private final float beta;
+    private final float derivativeCutoff;
+
+    private final float[] values = new float[4];// filtered values, indexed by axis
+    private final float[] speeds = new float[4];// filtered speeds, indexed by axis
+
+    /**
+     * Creates a One Euro filter with a derivative cutoff frequency of 1 Hz.
+     *
+     * @param minCutoff the minimum cutoff frequency, in Hz, used when the stick is still
+     * @param beta how much the cutoff frequency rises with the speed of the stick
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public XInputOneEuroFilterStage(final float minCutoff, final float beta) {
+        this(minCutoff, beta, 1f);
+    }
+
+    /**
+     * Creates a One Euro filter.
+     *
+     * @param minCutoff the minimum cutoff frequency, in Hz, used when the stick is still
+     * @param beta how much the cutoff frequency rises with the speed of the stick
+     * @param derivativeCutoff the cutoff frequency used to filter the speed, in Hz
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public XInputOneEuroFilterStage(final float minCutoff, final float beta, final float derivativeCutoff) {
+        super(Math.min(minCutoff, derivativeCutoff));
+        if (!(minCutoff > 0f && beta >= 0f && derivativeCutoff > 0f)) {
+            throw new IllegalArgumentException("Invalid filter parameters: " + minCutoff + ", " + beta + ", " + derivativeCutoff);
+        }
+        this.minCutoff = minCutoff;
+        this.beta = beta;
+        this.derivativeCutoff = derivativeCutoff;
+    }
+
+    @Override
+    protected void reset(final float lx, final float ly, final float rx, final float ry) {
+        values[0] = lx;
+        values[1] = ly;
+        values[2] = rx;
+        values[3] = ry;
+        speeds[0] = speeds[1] = speeds[2] = speeds[3] = 0f;
+    }
+
+    @Override
+    protected float filter(final int axis, final float value, final float dt) {
+        final float last = values[axis];
+        final float speed = speeds[axis] + alpha(derivativeCutoff, dt) * ((value - last) / dt - speeds[axis]);
+        speeds[axis] = speed;
+        final float cutoff = minCutoff + beta * Math.abs(speed);
+        final float filtered = last + alpha(cutoff, dt) * (value - last);
+        values[axis] = filtered;
+        return filtered;
+    }
+
+    @Override
+    protected float output(final int axis) {
+        return values[axis];
+    }
+}
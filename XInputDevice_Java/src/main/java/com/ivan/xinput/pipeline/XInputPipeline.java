@@ -0,0 +1,95 @@
+package com.ivan.xinput.pipeline;
+
+import com.ivan.xinput.XInputComponents;
+import com.ivan.xinput.XInputDevice;
+
+/**
+ * An ordered list of {@link XInputStage stages} that process the state of a device after it is decoded.
+ * <p>
+ * Pipelines are immutable and are set on each device with {@link XInputDevice#setPipeline(XInputPipeline)}, so every
+ * player can have different settings. The stages are kept in a flat array and run in order, so a device only pays for the
+ * stages in its pipeline. Pipelines with stateful stages, such as filters, must not be shared between devices.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public final class XInputPipeline {
+    /**
+     * A pipeline without stages, which leaves only the raw values in the components.
+     */
+    public static final XInputPipeline RAW = new XInputPipeline();
+
+    /**
+     * A pipeline that fills in the normalized axis values from the raw values.
+     */
+    public static final XInputPipeline NORMALIZED = new XInputPipeline(new XInputNormalizeStage());
+
+    private final XInputStage[] stages;
+    private final boolean continuous;
+    private final boolean normalized;
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param stages the stages, in the order they will run
+     * @throws NullPointerException if a stage is <code>null</code>
+     */
+    public XInputPipeline(final XInputStage... stages) {
+        this.stages = stages.clone();
+        boolean continuous = false;
+        boolean normalized = false;
+        for (final XInputStage stage : this.stages) {
+            if (stage == null) {
+                throw new NullPointerException("stage");
+            }
+            continuous |= stage.isContinuous();
+            normalized |= stage.isNormalizing();
+        }
+        this.continuous = continuous;
+        this.normalized = normalized;
+    }
+
+    /**
+     * Determines whether the pipeline must run on every poll, even if the state reported by XInput has not changed. This
+     * is the case for pipelines with a {@link XInputStage#isContinuous() continuous} stage, such as a
+     * {@link XInputFilterStage filter}, whose output keeps changing over time.
+     *
+     * @return <code>true</code> if the pipeline must run on every poll, <code>false</code> if it only needs to run when
+     *         the state changes
+     */
+    public boolean isContinuous() {
+        return continuous;
+    }
+
+    /**
+     * Determines whether the pipeline fills in the normalized axis values, which is the case for pipelines with a
+     * {@link XInputStage#isNormalizing() normalizing} stage, such as an {@link XInputNormalizeStage} or an
+     * {@link XInputDeadzoneStage}. Axis listeners and queued axis events of devices
+     * whose pipeline leaves the normalized values empty, such as {@link #RAW}, receive the raw values instead.
+     *
+     * @return <code>true</code> if the pipeline fills in the normalized axis values, <code>false</code> otherwise
+     */
+    public boolean isNormalized() {
+        return normalized;
+    }
+
+    /**
+     * Runs all stages of the pipeline on the components.
+     *
+     * @param components the components of the device
+     */
+    public void process(final XInputComponents components) {
+        final XInputStage[] stages = this.stages;
+        for (int i = 0; i < stages.length; i++) {
+            stages[i].process(components);
+        }
+    }
+
+    /**
+     * Returns the stages of the pipeline.
+     *
+     * @return a copy of the stages of the pipeline
+     */
+    public XInputStage[] getStages() {
+        return stages.clone();
+    }
+}
@@ -0,0 +1,46 @@
+package com.ivan.xinput.pipeline;
+
+import java.util.Map;
+
+import com.ivan.xinput.XInputButtonsStage;
+import com.ivan.xinput.XInputComponents;
+import com.ivan.xinput.enums.XInputButton;
+
+/**
+ * Remaps buttons, for example to swap A and B or to let players choose their own controls.
+ * <p>
+ * The mapping is compiled into a table indexed by the bits of the button mask, so remapping walks only the pressed
+ * buttons. Buttons that are not in the mapping keep their own bit. The D-Pad axis is recomputed from the remapped
+ * buttons.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputRemapStage extends XInputButtonsStage {
+    private final int[] targets = new int[16];// target mask for each source bit
+
+    /**
+     * Creates a remapping stage.
+     *
+     * @param mapping maps each source button to the button it will be reported as
+     */
+    public XInputRemapStage(final Map<XInputButton, XInputButton> mapping) {
+        for (int bit = 0; bit < targets.length; bit++) {
+            targets[bit] = 1 << bit;
+        }
+        for (final Map.Entry<XInputButton, XInputButton> entry : mapping.entrySet()) {
+            targets[Integer.numberOfTrailingZeros(entry.getKey().getMask())] = entry.getValue().getMask();
+        }
+    }
+
+    @Override
+    public void process(final XInputComponents components) {
+        int bits = components.getButtons().getMask();
+        int mask = 0;
+        while (bits != 0) {
+            final int bit = Integer.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            mask |= targets[bit];
+        }
+        setButtonMask(components, mask);
+    }
+}
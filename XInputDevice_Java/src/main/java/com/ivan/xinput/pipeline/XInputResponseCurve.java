@@ -0,0 +1,111 @@
+package com.ivan.xinput.pipeline;
+
+/**
+ * Maps the magnitude of an axis, from 0 to 1, to an output magnitude from 0 to 1, to adjust the sensitivity of the sticks
+ * and triggers.
+ * <p>
+ * Curves are evaluated only when an {@link XInputCurveStage} is created, which compiles them into lookup tables, so they
+ * can be as complex as needed. Custom curves can be created by overriding {@link #apply(float)}.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public abstract class XInputResponseCurve {
+    /**
+     * The identity curve.
+     */
+    public static final XInputResponseCurve LINEAR = new XInputResponseCurve() {
+        @Override
+        public float apply(final float x) {
+            return x;
+        }
+    };
+
+    /**
+     * Maps the magnitude of an axis to the output magnitude.
+     *
+     * @param x the magnitude of the axis, from 0 to 1
+     * @return the output magnitude, from 0 to 1
+     */
+    public abstract float apply(final float x);
+
+    /**
+     * Creates a power curve, <code>x<sup>exponent</sup></code>. Exponents above 1 give finer control near the center,
+     * exponents below 1 make the axis more sensitive near the center.
+     *
+     * @param exponent the exponent
+     * @return the curve
+     * @throws IllegalArgumentException if the exponent is not positive
+     */
+    public static XInputResponseCurve power(final float exponent) {
+        if (!(exponent > 0f)) {
+            throw new IllegalArgumentException("Invalid exponent: " + exponent);
+        }
+        return new XInputResponseCurve() {
+            @Override
+            public float apply(final float x) {
+                return (float) Math.pow(x, exponent);
+            }
+        };
+    }
+
+    /**
+     * Creates an S-curve, <code>x<sup>k</sup> / (x<sup>k</sup> + (1 - x)<sup>k</sup>)</code>, which is flat near both
+     * ends of the range and steep in the middle. A steepness of 1 is linear.
+     *
+     * @param steepness the steepness <code>k</code> of the curve
+     * @return the curve
+     * @throws IllegalArgumentException if the steepness is less than 1
+     */
+    public static XInputResponseCurve sCurve(final float steepness) {
+        if (!(steepness >= 1f)) {
+            throw new IllegalArgumentException("Invalid steepness: " + steepness);
+        }
+        return new XInputResponseCurve() {
+            @Override
+            public float apply(final float x) {
+                final double a = Math.pow(x, steepness);
+                final double b = Math.pow(1.0 - x, steepness);
+                return (float) (a / (a + b));
+            }
+        };
+    }
+
+    /**
+     * Creates a curve that interpolates linearly between control points. The curve is flat before the first point and
+     * after the last point.
+     *
+     * @param points the coordinates of the control points, as pairs of input and output magnitudes ordered by input
+     * @return the curve
+     * @throws IllegalArgumentException if there are no points, a coordinate is missing or out of range, or the inputs are
+     *             not in increasing order
+     */
+    public static XInputResponseCurve points(final float... points) {
+        if (points.length == 0 || points.length % 2 != 0) {
+            throw new IllegalArgumentException("Control points must be given as input and output pairs");
+        }
+        final float[] xs = new float[points.length / 2];
+        final float[] ys = new float[points.length / 2];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = points[i * 2];
+            ys[i] = points[i * 2 + 1];
+            if (!(xs[i] >= 0f && xs[i] <= 1f && ys[i] >= 0f && ys[i] <= 1f) || i > 0 && !(xs[i] > xs[i - 1])) {
+                throw new IllegalArgumentException("Invalid control point: (" + xs[i] + ", " + ys[i] + ")");
+            }
+        }
+        return new XInputResponseCurve() {
+            @Override
+            public float apply(final float x) {
+                if (x <= xs[0]) {
+                    return ys[0];
+                }
+                for (int i = 1; i < xs.length; i++) {
+                    if (x <= xs[i]) {
+                        final float t = (x - xs[i - 1]) / (xs[i] - xs[i - 1]);
+                        return ys[i - 1] + t * (ys[i] - ys[i - 1]);
+                    }
+                }
+                return ys[ys.length - 1];
+            }
+        };
+    }
+}
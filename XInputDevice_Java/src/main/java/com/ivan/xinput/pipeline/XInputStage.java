@@ -0,0 +1,44 @@
+package com.ivan.xinput.pipeline;
+
+import com.ivan.xinput.XInputComponents;
+
+/**
+ * A step of an {@link XInputPipeline}, which transforms the components of a device after they are decoded.
+ * <p>
+ * Stages run on the thread polling the device, once for every state reported by XInput, so they should be fast and should
+ * not allocate memory. The components passed to the first stage hold the raw values in the buttons and the raw axis
+ * fields, with all normalized axis values set to zero.
+ * <p>
+ * Each stage also tells its {@link XInputPipeline pipeline} how it behaves: whether it fills in the normalized axis values,
+ * and whether its output keeps changing while the state reported by XInput stays the same. Stages that transform values
+ * without keeping state, such as a remapping, return <code>false</code> from both methods.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public interface XInputStage {
+    /**
+     * Transforms the components in place.
+     *
+     * @param components the components of the device
+     */
+    void process(final XInputComponents components);
+
+    /**
+     * Determines whether the stage fills in the normalized axis values from the raw values, as
+     * {@link XInputNormalizeStage} does.
+     *
+     * @return <code>true</code> if the stage fills in the normalized axis values, <code>false</code> otherwise
+     * @see XInputPipeline#isNormalized()
+     */
+    boolean isNormalizing();
+
+    /**
+     * Determines whether the output of the stage can change between polls that read the same state, as it does for
+     * {@link XInputFilterStage filters}.
+     *
+     * @return <code>true</code> if the stage must run on every poll, <code>false</code> if it only needs to run when the
+     *         state changes
+     * @see XInputPipeline#isContinuous()
+     */
+    boolean isContinuous();
+}
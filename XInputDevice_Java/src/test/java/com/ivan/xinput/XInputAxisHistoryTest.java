@@ -0,0 +1,92 @@
+package com.ivan.xinput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.ivan.xinput.enums.XInputAxis;
+
+/**
+ * Tests the queries of {@link XInputAxisHistory} once the ring has wrapped, and copying it while it is being recorded.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputAxisHistoryTest {
+    private static final long INTERVAL = 10000000L;// 10 ms
+
+    @Test
+    public void queriesWrappedRing() {
+        final XInputAxisHistory history = new XInputAxisHistory(4);
+        final XInputAxes axes = new XInputAxes();
+        // lx = 300 * i^2 moves with a constant acceleration of 600 raw units per interval squared
+        for (int i = 0; i < 10; i++) {
+            axes.lxRaw = 300 * i * i;
+            axes.ltRaw = i;
+            history.record(axes, i * INTERVAL);
+        }
+
+        assertEquals(4, history.size());
+        assertEquals(24300, history.getRaw(XInputAxis.LEFT_THUMBSTICK_X, 0));
+        assertEquals(10800, history.getRaw(XInputAxis.LEFT_THUMBSTICK_X, 3));
+        assertEquals(6, history.getRaw(XInputAxis.LEFT_TRIGGER, 3));
+        assertEquals(6 * INTERVAL, history.getTimestamp(3));
+
+        final float velocity = (24300 - 10800) / 32768f / 0.03f;
+        assertEquals(velocity, history.getVelocity(XInputAxis.LEFT_THUMBSTICK_X, 3), velocity * 1e-5f);
+        final float acceleration = 600 / 32768f / (0.01f * 0.01f);
+        assertEquals(acceleration, history.getPeakAcceleration(XInputAxis.LEFT_THUMBSTICK_X, 3), acceleration * 1e-3f);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsWindowBeyondCapacity() {
+        final XInputAxisHistory history = new XInputAxisHistory(4);
+        final XInputAxes axes = new XInputAxes();
+        for (int i = 0; i < 10; i++) {
+            history.record(axes, i * INTERVAL);
+        }
+        history.getVelocity(XInputAxis.LEFT_THUMBSTICK_X, 4);
+    }
+
+    @Test
+    public void copiesConsistentSamples() throws InterruptedException {
+        final XInputAxisHistory history = new XInputAxisHistory(64);
+        final AtomicBoolean done = new AtomicBoolean();
+        final Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final XInputAxes axes = new XInputAxes();
+                for (int i = 1; !done.get(); i++) {
+                    // every field of a sample is derived from its timestamp
+                    axes.lxRaw = axes.lyRaw = axes.rxRaw = axes.ryRaw = (short) i;
+                    axes.ltRaw = axes.rtRaw = i & 0xff;
+                    history.record(axes, i);
+                }
+            }
+        });
+        writer.start();
+
+        final XInputAxisHistory copy = new XInputAxisHistory(64);
+        boolean torn = false;
+        for (int copies = 0; copies < 20000 && !torn; copies++) {
+            history.copyTo(copy);
+            for (int n = 0; n < copy.size() && !torn; n++) {
+                final long timestamp = copy.getTimestamp(n);
+                torn = copy.getRaw(XInputAxis.LEFT_THUMBSTICK_X, n) != (short) timestamp
+                    || copy.getRaw(XInputAxis.RIGHT_THUMBSTICK_Y, n) != (short) timestamp
+                    || copy.getRaw(XInputAxis.RIGHT_TRIGGER, n) != (timestamp & 0xff)
+                    || n > 0 && copy.getTimestamp(n - 1) != timestamp + 1;
+            }
+        }
+        done.set(true);
+        writer.join();
+        assertFalse("torn sample in copy", torn);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCopyToDifferentCapacity() {
+        new XInputAxisHistory(4).copyTo(new XInputAxisHistory(8));
+    }
+}
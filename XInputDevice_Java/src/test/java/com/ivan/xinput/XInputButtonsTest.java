@@ -0,0 +1,85 @@
+package com.ivan.xinput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.ivan.xinput.enums.XInputButton;
+
+/**
+ * Tests the bit mask of the buttons and the pressed and released masks of their delta.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputButtonsTest {
+    private static final int A = XInputButton.A.getMask();
+    private static final int B = XInputButton.B.getMask();
+    private static final int Y = XInputButton.Y.getMask();
+    private static final int UNKNOWN = XInputButton.UNKNOWN.getMask();
+
+    @Test
+    public void mapsEveryBitToItsButton() {
+        for (final XInputButton button : XInputButton.values()) {
+            final int mask = button.getMask();
+            assertEquals(1, Integer.bitCount(mask));
+            assertSame(button, XInputButton.fromBit(Integer.numberOfTrailingZeros(mask)));
+        }
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void rejectsBitsOutOfRange() {
+        XInputButton.fromBit(16);
+    }
+
+    @Test
+    public void keepsFieldsInSyncWithMask() {
+        final XInputButtons buttons = new XInputButtons();
+        // the high bit is set through the sign of the short constant, and must not leak into the upper bits of the mask
+        buttons.setMask(A | Y | UNKNOWN | 0xffff0000);
+
+        assertEquals(A | Y | UNKNOWN, buttons.getMask());
+        assertTrue(buttons.a);
+        assertTrue(buttons.y);
+        assertTrue(buttons.unknown);
+        assertFalse(buttons.b);
+        assertTrue(buttons.get(XInputButton.Y));
+        assertFalse(buttons.get(XInputButton.B));
+
+        final XInputButtons copy = new XInputButtons();
+        copy.copy(buttons);
+        assertEquals(buttons.getMask(), copy.getMask());
+        assertTrue(copy.unknown);
+
+        buttons.reset();
+        assertEquals(0, buttons.getMask());
+        assertFalse(buttons.a);
+    }
+
+    @Test
+    public void computesPressedAndReleasedMasks() {
+        final XInputButtons last = new XInputButtons();
+        final XInputButtons current = new XInputButtons();
+        final XInputButtonsDelta delta = new XInputButtonsDelta(last, current);
+
+        last.setMask(A | B);
+        current.setMask(B | Y);
+        delta.update();
+
+        assertEquals(Y, delta.getPressedMask());
+        assertEquals(A, delta.getReleasedMask());
+        assertEquals(A | Y, delta.getChangedMask());
+        assertTrue(delta.isPressed(XInputButton.Y));
+        assertTrue(delta.isReleased(XInputButton.A));
+        assertFalse(delta.isPressed(XInputButton.B));
+        assertFalse(delta.isReleased(XInputButton.B));
+
+        // the masks follow the buttons the delta points to
+        delta.setButtons(current, last);
+        delta.update();
+        assertEquals(A, delta.getPressedMask());
+        assertEquals(Y, delta.getReleasedMask());
+    }
+}
@@ -0,0 +1,66 @@
+package com.ivan.xinput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import com.ivan.xinput.backend.XInputSimulatedBackend;
+import com.ivan.xinput.enums.XInputButton;
+import com.ivan.xinput.natives.XInputConstants;
+
+/**
+ * Tests that {@link XInputDevice#pollAll()} reads all due devices with a single backend call, including while
+ * disconnected devices are backing off.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputDevicePollAllTest {
+    @Test
+    public void pollsDueDevicesInOneCall() {
+        final CountingBackend backend = new CountingBackend();
+        final ByteBuffer states = XInputDevice.newStatesBuffer();
+        final XInputDevice[] devices = new XInputDevice[XInputConstants.MAX_PLAYERS];
+        for (int i = 0; i < devices.length; i++) {
+            devices[i] = new XInputDevice(i, backend, states);
+        }
+        backend.setConnected(0, true);
+        backend.setConnected(2, true);
+
+        assertEquals(2, XInputDevice.pollAll(devices, states));
+        assertEquals(1, backend.batchedCalls);
+        assertEquals(0xf, backend.lastMask);
+
+        // players 1 and 3 are backing off, so only the connected players are read
+        backend.setButtons(2, XInputButton.A.getMask());
+        assertEquals(2, XInputDevice.pollAll(devices, states));
+        assertEquals(2, backend.batchedCalls);
+        assertEquals(0x5, backend.lastMask);
+        assertEquals(0, backend.singleCalls);
+        assertTrue(devices[2].getComponents().getButtons().a);
+
+        // the devices read by one call share the timestamp of the call
+        assertEquals(devices[0].getComponents().getTimestamp(), devices[2].getComponents().getTimestamp());
+    }
+
+    private static final class CountingBackend extends XInputSimulatedBackend {
+        int batchedCalls;
+        int singleCalls;
+        int lastMask;
+
+        @Override
+        public synchronized int pollDevice(final int playerNum, final ByteBuffer data) {
+            singleCalls++;
+            return super.pollDevice(playerNum, data);
+        }
+
+        @Override
+        public synchronized void pollDevices(final int playerMask, final ByteBuffer data) {
+            batchedCalls++;
+            lastMask = playerMask;
+            super.pollDevices(playerMask, data);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.ivan.xinput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ivan.xinput.backend.XInputSimulatedBackend;
+import com.ivan.xinput.enums.XInputAxis;
+import com.ivan.xinput.enums.XInputButton;
+import com.ivan.xinput.pipeline.XInputNormalizeStage;
+import com.ivan.xinput.pipeline.XInputPipeline;
+import com.ivan.xinput.pipeline.XInputStage;
+
+/**
+ * Tests how a device reads the state of the backend, using the simulated backend.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputDeviceTest {
+    private static final int ERROR_BAD_ARGUMENTS = 160;
+
+    private ScriptedBackend backend;
+    private XInputDevice device;
+
+    @Before
+    public void setUp() {
+        backend = new ScriptedBackend();
+        device = new XInputDevice(0, backend, XInputDevice.newStatesBuffer());
+    }
+
+    @Test
+    public void explicitPollsDoNotDelayProbes() {
+        XInputDevice.setDisconnectedProbeInterval(250, 2000, TimeUnit.MILLISECONDS);
+        assertFalse(device.pollIfDue(System.nanoTime()));
+        for (int i = 0; i < 100; i++) {
+            assertFalse(device.poll());
+        }
+
+        // the scheduled probe after the first interval finds the device
+        backend.setConnected(0, true);
+        assertTrue(device.pollIfDue(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300)));
+    }
+
+    @Test
+    public void readErrorInvalidatesPacketNumber() {
+        backend.setConnected(0, true);
+        assertTrue(device.poll());
+        final int packetNumber = device.getStateView().getPacketNumber();
+
+        backend.result = ERROR_BAD_ARGUMENTS;
+        try {
+            device.poll();
+        } catch (final IllegalStateException expected) {
+            // the device is reported as disconnected
+        }
+        assertFalse(device.isConnected());
+
+        // a different state with the same packet number, as from another controller plugged into the slot
+        backend.result = -1;
+        backend.forcedPacketNumber = packetNumber;
+        backend.setButtons(0, XInputButton.A.getMask());
+        assertTrue(device.poll());
+        assertTrue(device.getComponents().getButtons().a);
+    }
+
+    @Test
+    public void resetsDeltaOnFirstUnchangedPoll() {
+        backend.setConnected(0, true);
+        device.poll();
+        backend.setButtons(0, XInputButton.A.getMask());
+        assertTrue(device.poll());
+        assertTrue(device.isChanged());
+        assertEquals(XInputButton.A.getMask(), device.getDelta().getButtons().getPressedMask());
+        final int packetNumber = device.getPacketNumber();
+        final long generation = device.getComponents().getGeneration();
+
+        // the packet number did not change, so the state is not decoded again, but the delta no longer reports the press
+        assertTrue(device.poll());
+        assertFalse(device.isChanged());
+        assertEquals(packetNumber, device.getPacketNumber());
+        assertEquals(0, device.getDelta().getButtons().getChangedMask());
+        assertEquals(0, device.getDelta().getChangedMask());
+        assertEquals(0, device.getComponents().getChangedMask());
+        assertEquals(generation, device.getComponents().getGeneration());
+        assertTrue(device.getComponents().getButtons().a);
+        assertTrue(device.getLastComponents().getButtons().a);
+
+        assertTrue(device.poll());
+        assertFalse(device.isChanged());
+        assertEquals(generation, device.getComponents().getGeneration());
+
+        // setting the same state again does not increment the packet number
+        backend.setButtons(0, XInputButton.A.getMask());
+        device.poll();
+        assertEquals(packetNumber, device.getPacketNumber());
+        assertFalse(device.isChanged());
+    }
+
+    @Test
+    public void swapsComponentsOnChange() {
+        backend.setConnected(0, true);
+        device.poll();
+        final XInputComponents first = device.getComponents();
+        final XInputComponents second = device.getLastComponents();
+        assertTrue(first != second);
+
+        backend.setState(0, XInputButton.A.getMask(), 255, 0, 1000, 0, 0, 0);
+        device.poll();
+        assertSame(second, device.getComponents());
+        assertSame(first, device.getLastComponents());
+        assertTrue(device.getComponents().getButtons().a);
+        assertEquals(255, device.getComponents().getAxes().ltRaw);
+        assertFalse(device.getLastComponents().getButtons().a);
+        assertEquals(0, device.getLastComponents().getAxes().ltRaw);
+
+        backend.setState(0, XInputButton.B.getMask(), 255, 0, 2000, 0, 0, 0);
+        device.poll();
+        assertSame(first, device.getComponents());
+        assertSame(second, device.getLastComponents());
+        assertTrue(device.getLastComponents().getButtons().a);
+        assertEquals(1000, device.getLastComponents().getAxes().lxRaw);
+        assertEquals(2000, device.getComponents().getAxes().lxRaw);
+        assertEquals(XInputButton.B.getMask(), device.getDelta().getButtons().getPressedMask());
+        assertEquals(XInputButton.A.getMask(), device.getDelta().getButtons().getReleasedMask());
+        assertTrue(device.getDelta().getAxes().isChanged(XInputAxis.LEFT_THUMBSTICK_X));
+        assertFalse(device.getDelta().getAxes().isChanged(XInputAxis.LEFT_TRIGGER));
+    }
+
+    @Test
+    public void tracksChangedMaskAndGeneration() {
+        backend.setConnected(0, true);
+        device.poll();
+        final long generation = device.getComponents().getGeneration();
+
+        backend.setState(0, XInputButton.A.getMask(), 0, 0, 1000, 0, 0, 0);
+        device.poll();
+        assertEquals(XInputButton.A.getMask() | 1 << XInputComponents.AXES_SHIFT + XInputAxis.LEFT_THUMBSTICK_X.ordinal(),
+            device.getComponents().getChangedMask());
+        assertEquals(device.getDelta().getChangedMask(), device.getComponents().getChangedMask());
+        assertEquals(generation + 1, device.getComponents().getGeneration());
+
+        backend.setState(0, XInputButton.A.getMask(), 0, 100, 1000, 0, 0, 0);
+        device.poll();
+        assertEquals(1 << XInputComponents.AXES_SHIFT + XInputAxis.RIGHT_TRIGGER.ordinal(),
+            device.getComponents().getChangedMask());
+        assertEquals(generation + 2, device.getComponents().getGeneration());
+
+        // a new packet number with the same values is decoded, but changes nothing
+        backend.forcedPacketNumber = device.getPacketNumber() + 1;
+        device.poll();
+        assertTrue(device.isChanged());
+        assertEquals(0, device.getComponents().getChangedMask());
+        assertEquals(generation + 2, device.getComponents().getGeneration());
+    }
+
+    @Test
+    public void keepsSnapshotPackedStateAndViewConsistent() {
+        backend.setConnected(0, true);
+        device.setPipeline(XInputPipeline.RAW);
+        final XInputSnapshot snapshot = new XInputSnapshot();
+        final int[][] states = { { XInputButton.A.getMask(), 10, 20, 100, -200, 300, -400 },
+            { XInputButton.Y.getMask() | XInputButton.DPAD_LEFT.getMask(), 255, 0, -32768, 32767, 0, -1 } };
+        for (final int[] state : states) {
+            backend.setState(0, state[0], state[1], state[2], state[3], state[4], state[5], state[6]);
+            device.poll();
+            device.readSnapshot(snapshot);
+            final XInputPackedState packed = device.getPackedState();
+            final XInputStateView view = device.getStateView();
+            final XInputComponents components = device.getComponents();
+
+            assertTrue(snapshot.isConnected());
+            assertEquals(view.getPacketNumber(), snapshot.getPacketNumber());
+            assertEquals(view.getPacketNumber(), packed.getPacketNumber());
+            assertEquals(components.getGeneration(), snapshot.getGeneration());
+            assertEquals(packed.getLow(), snapshot.getPackedLow());
+            assertEquals(packed.getHigh(), snapshot.getPackedHigh());
+            assertEquals(view.getButtonMask(), snapshot.getButtonMask());
+            assertEquals(view.getButtonMask(), packed.getButtons());
+            assertEquals(components.getButtons().getMask(), packed.getButtons());
+            for (final XInputAxis axis : XInputAxis.values()) {
+                assertEquals(view.getRaw(axis), snapshot.getRaw(axis));
+            }
+            assertEquals(view.getLeftTrigger(), packed.getLeftTrigger());
+            assertEquals(view.getRightTrigger(), packed.getRightTrigger());
+            assertEquals(view.getThumbLX(), packed.getThumbLX());
+            assertEquals(view.getThumbLY(), packed.getThumbLY());
+            assertEquals(view.getThumbRX(), packed.getThumbRX());
+            assertEquals(view.getThumbRY(), packed.getThumbRY());
+            assertEquals(state[3], components.getAxes().lxRaw);
+            assertEquals(state[6], view.getThumbRY());
+        }
+
+        backend.setConnected(0, false);
+        device.poll();
+        device.readSnapshot(snapshot);
+        assertFalse(snapshot.isConnected());
+    }
+
+    @Test
+    public void runsContinuousCustomStagesOnEveryPoll() {
+        backend.setConnected(0, true);
+        final CountingStage once = new CountingStage(false);
+        final CountingStage always = new CountingStage(true);
+        device.setPipeline(new XInputPipeline(new XInputNormalizeStage(), once));
+        device.poll();
+        device.poll();
+        device.poll();
+        // the state did not change after the first poll
+        assertEquals(1, once.runs);
+
+        device.setPipeline(new XInputPipeline(new XInputNormalizeStage(), always));
+        device.poll();
+        device.poll();
+        device.poll();
+        assertEquals(3, always.runs);
+    }
+
+    private static final class CountingStage implements XInputStage {
+        private final boolean continuous;
+        int runs;
+
+        CountingStage(final boolean continuous) {
+            this.continuous = continuous;
+        }
+
+        @Override
+        public void process(final XInputComponents components) {
+            runs++;
+        }
+
+        @Override
+        public boolean isNormalizing() {
+            return false;
+        }
+
+        @Override
+        public boolean isContinuous() {
+            return continuous;
+        }
+    }
+
+    private static final class ScriptedBackend extends XInputSimulatedBackend {
+        int result = -1;// return code to report instead of reading the state, or -1 to read it
+        int forcedPacketNumber = -1;// packet number to report instead of the real one, or -1 to report it
+
+        @Override
+        public synchronized int pollDevice(final int playerNum, final ByteBuffer data) {
+            if (result != -1) {
+                return result;
+            }
+            final int ret = super.pollDevice(playerNum, data);
+            if (forcedPacketNumber != -1) {
+                data.putInt(0, forcedPacketNumber);
+            }
+            return ret;
+        }
+    }
+}
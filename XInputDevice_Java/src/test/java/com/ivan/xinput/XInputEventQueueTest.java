@@ -0,0 +1,225 @@
+package com.ivan.xinput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.ivan.xinput.listener.XInputEventHandler;
+
+/**
+ * Tests the ordering, capacity and wrap-around of {@link XInputEventQueue}.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputEventQueueTest {
+    @Test
+    public void roundsCapacityUpToPowerOfTwo() {
+        assertEquals(1, new XInputEventQueue(1).getCapacity());
+        assertEquals(8, new XInputEventQueue(5).getCapacity());
+        assertEquals(16, new XInputEventQueue(16).getCapacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidCapacity() {
+        new XInputEventQueue(0);
+    }
+
+    @Test
+    public void encodesEvents() {
+        final XInputEventQueue queue = new XInputEventQueue(4);
+        queue.offer(3, XInputEventQueue.AXIS_CHANGED, 5, -0.25f, 1234567890123L);
+        final Recorder recorder = new Recorder(1);
+        assertEquals(1, queue.drain(recorder));
+        assertEquals(3, recorder.playerNums[0]);
+        assertEquals(XInputEventQueue.AXIS_CHANGED, recorder.types[0]);
+        assertEquals(5, recorder.codes[0]);
+        assertEquals(-0.25f, recorder.values[0], 0f);
+        assertEquals(1234567890123L, recorder.timestamps[0]);
+    }
+
+    @Test
+    public void dropsAndCountsEventsWhenFull() {
+        final XInputEventQueue queue = new XInputEventQueue(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(0, XInputEventQueue.BUTTON_PRESSED, i, 1f, i));
+        }
+        assertEquals(false, queue.offer(0, XInputEventQueue.BUTTON_PRESSED, 4, 1f, 4));
+        assertEquals(false, queue.offer(0, XInputEventQueue.BUTTON_PRESSED, 5, 1f, 5));
+        assertEquals(2L, queue.getDroppedCount());
+        assertEquals(4, queue.size());
+
+        // the oldest events are kept
+        final Recorder recorder = new Recorder(4);
+        assertEquals(4, queue.drain(recorder));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, recorder.codes[i]);
+        }
+
+        // space is available again once drained
+        assertTrue(queue.offer(0, XInputEventQueue.BUTTON_PRESSED, 6, 1f, 6));
+        assertEquals(2L, queue.getDroppedCount());
+    }
+
+    @Test
+    public void wrapsAround() {
+        final XInputEventQueue queue = new XInputEventQueue(4);
+        long next = 0;
+        long expected = 0;
+        final Recorder recorder = new Recorder(3);
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(queue.offer(1, XInputEventQueue.AXIS_CHANGED, 0, next, next));
+                next++;
+            }
+            recorder.count = 0;
+            assertEquals(3, queue.drain(recorder));
+            for (int i = 0; i < 3; i++) {
+                assertEquals(expected, recorder.timestamps[i]);
+                assertEquals((float) expected, recorder.values[i], 0f);
+                expected++;
+            }
+        }
+        assertEquals(0, queue.size());
+        assertEquals(0L, queue.getDroppedCount());
+    }
+
+    @Test
+    public void drainsUpToMax() {
+        final XInputEventQueue queue = new XInputEventQueue(8);
+        for (int i = 0; i < 5; i++) {
+            queue.offer(0, XInputEventQueue.BUTTON_RELEASED, i, 0f, i);
+        }
+        final Recorder recorder = new Recorder(5);
+        assertEquals(2, queue.drain(recorder, 2));
+        assertEquals(3, queue.size());
+        assertEquals(3, queue.drain(recorder, 10));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, recorder.codes[i]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeMax() {
+        final XInputEventQueue queue = new XInputEventQueue(8);
+        queue.offer(0, XInputEventQueue.BUTTON_PRESSED, 0, 1f, 0);
+        queue.drain(new Recorder(1), -1);
+    }
+
+    @Test
+    public void doesNotRedeliverEventsWhenHandlerThrows() {
+        final XInputEventQueue queue = new XInputEventQueue(8);
+        for (int i = 0; i < 5; i++) {
+            queue.offer(0, XInputEventQueue.BUTTON_PRESSED, i, 1f, i);
+        }
+        final Recorder recorder = new Recorder(5) {
+            @Override
+            public void event(final int playerNum, final int type, final int code, final float value, final long timestamp) {
+                super.event(playerNum, type, code, value, timestamp);
+                if (code == 2) {
+                    throw new IllegalStateException("handler failed");
+                }
+            }
+        };
+        try {
+            queue.drain(recorder);
+            fail("the handler exception was not propagated");
+        } catch (final IllegalStateException e) {
+            // expected
+        }
+        assertEquals(3, recorder.count);
+        assertEquals(2, queue.size());
+        assertEquals(2, queue.drain(recorder));
+        assertEquals(5, recorder.count);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, recorder.codes[i]);
+        }
+    }
+
+    @Test
+    public void preservesOrderAcrossThreads() throws InterruptedException {
+        final int events = 2000000;
+        final XInputEventQueue queue = new XInputEventQueue(64);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final long[] received = new long[2];// number of events, sequence number of the last event
+        final Thread consumer = new Thread("consumer") {
+            @Override
+            public void run() {
+                final XInputEventHandler handler = new XInputEventHandler() {
+                    @Override
+                    public void event(final int playerNum, final int type, final int code, final float value,
+                        final long timestamp) {
+                        // each event carries its sequence number; the ones dropped while the queue was full leave gaps
+                        if (received[0] > 0 && timestamp <= received[1]) {
+                            throw new AssertionError("event " + timestamp + " after " + received[1]);
+                        }
+                        if (code != (int) (timestamp & 0xffff) || value != (float) (timestamp & 0xff)) {
+                            throw new AssertionError("event " + timestamp + " was corrupted");
+                        }
+                        received[0]++;
+                        received[1] = timestamp;
+                    }
+                };
+                try {
+                    while (received[0] == 0 || received[1] != events) {
+                        if (queue.drain(handler) == 0) {
+                            Thread.yield();
+                        }
+                    }
+                } catch (final Throwable t) {
+                    failure.set(t);
+                }
+            }
+        };
+        consumer.start();
+
+        long accepted = 0;
+        for (long i = 0; i < events && failure.get() == null; i++) {
+            if (queue.offer(2, XInputEventQueue.AXIS_CHANGED, (int) (i & 0xffff), i & 0xff, i)) {
+                accepted++;
+            }
+        }
+        final long dropped = queue.getDroppedCount();
+        // the last event tells the consumer to stop, so it is retried until it fits
+        while (failure.get() == null
+            && !queue.offer(2, XInputEventQueue.AXIS_CHANGED, events & 0xffff, events & 0xff, events)) {
+            Thread.yield();
+        }
+        consumer.join(60000);
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertEquals(events, accepted + dropped);
+        assertEquals(accepted + 1, received[0]);
+        assertEquals(0, queue.size());
+    }
+
+    private static class Recorder implements XInputEventHandler {
+        final int[] playerNums, types, codes;
+        final float[] values;
+        final long[] timestamps;
+        int count;
+
+        Recorder(final int capacity) {
+            playerNums = new int[capacity];
+            types = new int[capacity];
+            codes = new int[capacity];
+            values = new float[capacity];
+            timestamps = new long[capacity];
+        }
+
+        @Override
+        public void event(final int playerNum, final int type, final int code, final float value, final long timestamp) {
+            playerNums[count] = playerNum;
+            types[count] = type;
+            codes[count] = code;
+            values[count] = value;
+            timestamps[count] = timestamp;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.ivan.xinput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ivan.xinput.backend.XInputSimulatedBackend;
+import com.ivan.xinput.enums.XInputButton;
+
+/**
+ * Tests the frames of button changes collected by {@link XInputFrameAccumulator}, using the simulated backend.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputFrameAccumulatorTest {
+    private XInputSimulatedBackend backend;
+    private XInputDevice device;
+
+    @Before
+    public void setUp() {
+        backend = new XInputSimulatedBackend();
+        device = new XInputDevice(0, backend, XInputDevice.newStatesBuffer());
+        backend.setConnected(0, true);
+        device.poll();
+    }
+
+    @Test
+    public void keepsPressAndReleaseWithinFrame() {
+        final XInputFrameAccumulator frame = new XInputFrameAccumulator(device);
+        press(XInputButton.A);
+        press();
+
+        assertTrue(frame.consume());
+        assertTrue(frame.wasPressed(XInputButton.A));
+        assertTrue(frame.wasReleased(XInputButton.A));
+        assertFalse(frame.isHeld(XInputButton.A));
+        assertEquals(1, frame.getPressCount(XInputButton.A));
+    }
+
+    @Test
+    public void countsPresses() {
+        final XInputFrameAccumulator frame = new XInputFrameAccumulator(device);
+        for (int i = 0; i < 3; i++) {
+            press(XInputButton.X);
+            press();
+        }
+
+        frame.consume();
+        assertEquals(3, frame.getPressCount(XInputButton.X));
+        assertEquals(0, frame.getPressCount(XInputButton.Y));
+        frame.consume();
+        assertEquals(0, frame.getPressCount(XInputButton.X));
+    }
+
+    @Test
+    public void keepsHeldAcrossFrames() {
+        final XInputFrameAccumulator frame = new XInputFrameAccumulator(device);
+        press(XInputButton.B);
+
+        assertTrue(frame.consume());
+        assertTrue(frame.wasPressed(XInputButton.B));
+        assertTrue(frame.isHeld(XInputButton.B));
+
+        assertFalse(frame.consume());
+        assertFalse(frame.wasPressed(XInputButton.B));
+        assertTrue(frame.isHeld(XInputButton.B));
+
+        press();
+        assertTrue(frame.consume());
+        assertTrue(frame.wasReleased(XInputButton.B));
+        assertFalse(frame.isHeld(XInputButton.B));
+    }
+
+    @Test
+    public void startsWithButtonsHeldByDevice() {
+        press(XInputButton.LEFT_SHOULDER);
+        final XInputFrameAccumulator frame = new XInputFrameAccumulator(device);
+
+        assertFalse(frame.consume());
+        assertTrue(frame.isHeld(XInputButton.LEFT_SHOULDER));
+        assertFalse(frame.wasPressed(XInputButton.LEFT_SHOULDER));
+    }
+
+    @Test
+    public void clearsHeldButtonsOnDisconnect() {
+        final XInputFrameAccumulator frame = new XInputFrameAccumulator(device);
+        press(XInputButton.A);
+        frame.consume();
+        assertTrue(frame.isHeld(XInputButton.A));
+
+        backend.setConnected(0, false);
+        device.poll();
+        frame.consume();
+        assertFalse(frame.isHeld(XInputButton.A));
+    }
+
+    @Test
+    public void stopsAccumulatingWhenDetached() {
+        final XInputFrameAccumulator frame = new XInputFrameAccumulator(device);
+        frame.detach();
+        press(XInputButton.A);
+        assertFalse(frame.consume());
+    }
+
+    private void press(final XInputButton... buttons) {
+        int mask = 0;
+        for (final XInputButton button : buttons) {
+            mask |= button.getMask();
+        }
+        backend.setButtons(0, mask);
+        device.poll();
+    }
+}
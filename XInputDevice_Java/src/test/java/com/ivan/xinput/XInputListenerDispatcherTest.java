@@ -0,0 +1,497 @@
+package com.ivan.xinput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ivan.xinput.backend.XInputSimulatedBackend;
+import com.ivan.xinput.enums.XInputAxis;
+import com.ivan.xinput.enums.XInputButton;
+import com.ivan.xinput.listener.SimpleXInputDeviceListener;
+import com.ivan.xinput.listener.SimpleXInputTimestampedListener;
+import com.ivan.xinput.listener.XInputAxisListener;
+import com.ivan.xinput.listener.XInputStateListener;
+import com.ivan.xinput.pipeline.XInputPipeline;
+
+/**
+ * Tests the delivery of listener events on the polling thread and on executors, using the simulated backend.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputListenerDispatcherTest {
+    private XInputSimulatedBackend backend;
+    private XInputDevice device;
+    private ExecutorService pool1;
+    private ExecutorService pool2;
+
+    @Before
+    public void setUp() {
+        backend = new XInputSimulatedBackend();
+        device = new XInputDevice(0, backend, XInputDevice.newStatesBuffer());
+        pool1 = Executors.newFixedThreadPool(4);
+        pool2 = Executors.newFixedThreadPool(4);
+        backend.setConnected(0, true);
+    }
+
+    @After
+    public void tearDown() {
+        pool1.shutdownNow();
+        pool2.shutdownNow();
+    }
+
+    @Test
+    public void deliversEventsOnPollingThread() {
+        final List<String> events = new ArrayList<String>();
+        final Thread pollingThread = Thread.currentThread();
+        device.addListener(new SimpleXInputDeviceListener() {
+            @Override
+            public void connected() {
+                assertSame(pollingThread, Thread.currentThread());
+                events.add("connected");
+            }
+
+            @Override
+            public void buttonChanged(final XInputButton button, final boolean pressed) {
+                assertSame(pollingThread, Thread.currentThread());
+                events.add(button + (pressed ? " pressed" : " released"));
+            }
+        });
+
+        device.poll();
+        backend.setButtons(0, XInputButton.A.getMask() | XInputButton.B.getMask());
+        device.poll();
+        backend.setButtons(0, XInputButton.B.getMask());
+        device.poll();
+
+        assertEquals(4, events.size());
+        assertEquals("connected", events.get(0));
+        assertEquals("A pressed", events.get(1));
+        assertEquals("B pressed", events.get(2));
+        assertEquals("A released", events.get(3));
+    }
+
+    @Test
+    public void reportsOnlyChangedButtonsInBitOrder() {
+        final List<String> events = new ArrayList<String>();
+        backend.setButtons(0, XInputButton.A.getMask() | XInputButton.Y.getMask());
+        device.poll();
+        device.addListener(new SimpleXInputDeviceListener() {
+            @Override
+            public void buttonChanged(final XInputButton button, final boolean pressed) {
+                events.add(button + (pressed ? " pressed" : " released"));
+            }
+        });
+
+        // A stays held, and Y is the highest bit of the mask
+        backend.setButtons(0, XInputButton.A.getMask() | XInputButton.B.getMask() | XInputButton.DPAD_UP.getMask());
+        device.poll();
+        assertEquals(Arrays.asList("DPAD_UP pressed", "B pressed", "Y released"), events);
+
+        events.clear();
+        backend.setButtons(0, XInputButton.A.getMask() | XInputButton.B.getMask() | XInputButton.DPAD_UP.getMask()
+            | XInputButton.Y.getMask());
+        device.poll();
+        assertEquals(Collections.singletonList("Y pressed"), events);
+
+        // axis changes alone report no buttons
+        events.clear();
+        backend.setTriggers(0, 255, 0);
+        device.poll();
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void passesPollTimestamps() {
+        final List<Long> timestamps = new ArrayList<Long>();
+        device.addListener(new SimpleXInputTimestampedListener() {
+            @Override
+            public void connected(final long timestamp) {
+                timestamps.add(timestamp);
+            }
+
+            @Override
+            public void buttonChanged(final XInputButton button, final boolean pressed, final long timestamp) {
+                timestamps.add(timestamp);
+            }
+        });
+
+        final long start = System.nanoTime();
+        device.poll();
+        final long connected = device.getComponents().getTimestamp();
+        backend.setButtons(0, XInputButton.A.getMask());
+        device.poll();
+        final long end = System.nanoTime();
+
+        final long pressed = device.getComponents().getTimestamp();
+        assertEquals(Arrays.asList(connected, pressed), timestamps);
+        assertTrue(start <= connected && connected <= pressed && pressed <= end);
+        assertEquals(pressed, device.getDelta().getTimestamp());
+        assertEquals(pressed, device.getPackedState().getTimestamp());
+
+        // polls that find the same state still update the timestamp of the components
+        device.poll();
+        assertTrue(device.getComponents().getTimestamp() >= pressed);
+        assertEquals(2, timestamps.size());
+    }
+
+    @Test
+    public void reportsWholePollsToStateListeners() {
+        final List<List<Integer>> calls = new ArrayList<List<Integer>>();
+        device.addStateListener(new XInputStateListener() {
+            @Override
+            public void stateChanged(final XInputDevice source, final int pressedMask, final int releasedMask,
+                final int dirtyAxes, final long timestamp) {
+                assertSame(device, source);
+                assertEquals(device.getComponents().getTimestamp(), timestamp);
+                calls.add(Arrays.asList(pressedMask, releasedMask, dirtyAxes));
+            }
+        });
+        final int a = XInputButton.A.getMask();
+        final int b = XInputButton.B.getMask();
+        final int lt = 1 << XInputAxis.LEFT_TRIGGER.ordinal();
+        final int lx = 1 << XInputAxis.LEFT_THUMBSTICK_X.ordinal();
+
+        device.poll();
+        backend.setState(0, a | b, 255, 0, 0, 0, 0, 0);
+        device.poll();
+        device.poll();
+        backend.setState(0, b, 255, 0, 20000, 0, 0, 0);
+        device.poll();
+        backend.setState(0, b, 0, 0, 20000, 0, 0, 0);
+        device.poll();
+
+        // one call per poll that changed anything, holding every change of the poll
+        assertEquals(Arrays.asList(Arrays.asList(a | b, 0, lt), Arrays.asList(0, a, lx), Arrays.asList(0, 0, lt)), calls);
+    }
+
+    @Test
+    public void allowsChangingListenersDuringDispatch() {
+        final List<String> events = new ArrayList<String>();
+        final XInputStateListener added = new XInputStateListener() {
+            @Override
+            public void stateChanged(final XInputDevice device, final int pressedMask, final int releasedMask,
+                final int dirtyAxes, final long timestamp) {
+                events.add("added");
+            }
+        };
+        device.addStateListener(new XInputStateListener() {
+            @Override
+            public void stateChanged(final XInputDevice device, final int pressedMask, final int releasedMask,
+                final int dirtyAxes, final long timestamp) {
+                events.add("once");
+                device.removeStateListener(this);
+                device.addStateListener(added);
+            }
+        });
+        device.addStateListener(new XInputStateListener() {
+            @Override
+            public void stateChanged(final XInputDevice device, final int pressedMask, final int releasedMask,
+                final int dirtyAxes, final long timestamp) {
+                events.add("always");
+            }
+        });
+
+        device.poll();
+
+        // the poll that changes the listeners still reaches all of the listeners it started with, and only those
+        backend.setButtons(0, XInputButton.A.getMask());
+        device.poll();
+        assertEquals(Arrays.asList("once", "always"), events);
+
+        events.clear();
+        backend.setButtons(0, 0);
+        device.poll();
+        assertEquals(Arrays.asList("always", "added"), events);
+    }
+
+    @Test
+    public void filtersButtonsBySubscription() {
+        final List<XInputButton> buttons = new ArrayList<XInputButton>();
+        device.addListener(new SimpleXInputDeviceListener() {
+            @Override
+            public void buttonChanged(final XInputButton button, final boolean pressed) {
+                buttons.add(button);
+            }
+        }, EnumSet.of(XInputButton.X));
+
+        device.poll();
+        backend.setButtons(0, XInputButton.A.getMask() | XInputButton.X.getMask());
+        device.poll();
+
+        assertEquals(Collections.singletonList(XInputButton.X), buttons);
+    }
+
+    @Test
+    public void separatesConnectionAndButtonSubscriptions() {
+        final List<String> buttonEvents = new ArrayList<String>();
+        final List<String> connectionEvents = new ArrayList<String>();
+        device.addListener(new EventRecorder(buttonEvents), XInputButton.A.getMask() | XInputButton.Y.getMask());
+        device.addListener(new EventRecorder(connectionEvents), XInputDevice.LISTEN_CONNECTION);
+
+        device.poll();
+        backend.setButtons(0, XInputButton.A.getMask() | XInputButton.B.getMask() | XInputButton.Y.getMask());
+        device.poll();
+        backend.setConnected(0, false);
+        device.poll();
+
+        assertEquals(Arrays.asList("A pressed", "Y pressed"), buttonEvents);
+        assertEquals(Arrays.asList("connected", "disconnected"), connectionEvents);
+    }
+
+    @Test
+    public void appliesAxisThresholds() {
+        final List<Float> values = new ArrayList<Float>();
+        device.addAxisListener(new XInputAxisListener() {
+            @Override
+            public void axisChanged(final XInputAxis axis, final float value, final float delta) {
+                if (axis == XInputAxis.LEFT_TRIGGER) {
+                    values.add(value);
+                }
+            }
+        }, 0.1f);
+
+        device.poll();
+        for (int trigger = 0; trigger <= 255; trigger += 5) {
+            backend.setTriggers(0, trigger, 0);
+            device.poll();
+        }
+
+        // every reported value moved more than the threshold from the previous one
+        assertTrue(values.size() > 1);
+        float last = 0f;
+        for (final float value : values) {
+            assertTrue(value - last > 0.1f);
+            last = value;
+        }
+    }
+
+    @Test
+    public void reportsRawValuesWithoutNormalization() {
+        final List<Float> values = new ArrayList<Float>();
+        device.setPipeline(XInputPipeline.RAW);
+        device.addAxisListener(new XInputAxisListener() {
+            @Override
+            public void axisChanged(final XInputAxis axis, final float value, final float delta) {
+                if (axis == XInputAxis.LEFT_THUMBSTICK_X) {
+                    values.add(value);
+                }
+            }
+        }, 1000f);
+
+        device.poll();
+        for (final int lx : new int[] { 500, 1500, 2000, 3000 }) {
+            backend.setThumbs(0, lx, 0, 0, 0);
+            device.poll();
+        }
+
+        assertEquals(Arrays.asList(1500f, 3000f), values);
+    }
+
+    @Test
+    public void isolatesAndCountsListenerFailures() {
+        final AtomicInteger delivered = new AtomicInteger();
+        final XInputStateListener failing = new XInputStateListener() {
+            @Override
+            public void stateChanged(final XInputDevice device, final int pressedMask, final int releasedMask,
+                final int dirtyAxes, final long timestamp) {
+                if ((pressedMask & XInputButton.A.getMask()) != 0) {
+                    throw new IllegalStateException("listener failed");
+                }
+                throw new AssertionError("listener error");
+            }
+        };
+        device.addStateListener(failing);
+        device.addStateListener(new XInputStateListener() {
+            @Override
+            public void stateChanged(final XInputDevice device, final int pressedMask, final int releasedMask,
+                final int dirtyAxes, final long timestamp) {
+                delivered.incrementAndGet();
+            }
+        });
+
+        device.poll();
+        backend.setButtons(0, XInputButton.A.getMask());
+        device.poll();
+        backend.setButtons(0, 0);
+        device.poll();
+
+        assertEquals(2, delivered.get());
+        assertEquals(2L, device.getListenerErrorCount());
+        assertEquals(2L, device.getListenerErrorCount(failing));
+        assertTrue(device.getLastListenerError() instanceof AssertionError);
+    }
+
+    @Test
+    public void deliversEventsInOrderOnExecutor() throws InterruptedException {
+        final int polls = 20000;
+        final Checker checker = new Checker();
+        device.addStateListener(checker);
+        device.setListenerExecutor(pool1);
+
+        pollToggling(polls);
+        awaitDelivered(checker, polls);
+        checker.assertValid();
+        assertTrue(checker.otherThread.get());
+    }
+
+    @Test
+    public void staysSerialWhileExecutorChanges() throws InterruptedException {
+        final int polls = 100000;
+        final Checker checker = new Checker();
+        device.addStateListener(checker);
+
+        final AtomicBoolean done = new AtomicBoolean();
+        final Thread switcher = new Thread("switcher") {
+            @Override
+            public void run() {
+                final Executor[] executors = { pool1, pool2, null };
+                for (int i = 0; !done.get(); i++) {
+                    device.setListenerExecutor(executors[i % executors.length]);
+                    Thread.yield();
+                }
+            }
+        };
+        switcher.start();
+        pollToggling(polls);
+        done.set(true);
+        switcher.join();
+
+        awaitDelivered(checker, polls);
+        checker.assertValid();
+    }
+
+    @Test
+    public void survivesErrorsOnExecutor() throws InterruptedException {
+        final int polls = 1000;
+        final Checker checker = new Checker() {
+            @Override
+            public void stateChanged(final XInputDevice device, final int pressedMask, final int releasedMask,
+                final int dirtyAxes, final long timestamp) {
+                super.stateChanged(device, pressedMask, releasedMask, dirtyAxes, timestamp);
+                if (count.get() % 10 == 0) {
+                    throw new StackOverflowError("listener error");
+                }
+            }
+        };
+        device.addStateListener(checker);
+        device.setListenerExecutor(pool1);
+
+        pollToggling(polls);
+        awaitDelivered(checker, polls);
+        checker.assertValid();
+        assertEquals(polls / 10, device.getListenerErrorCount());
+    }
+
+    @Test
+    public void dropsFramesRejectedByExecutor() throws InterruptedException {
+        final Checker checker = new Checker();
+        device.addStateListener(checker);
+        device.setListenerExecutor(new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                throw new RejectedExecutionException("rejected");
+            }
+        });
+
+        pollToggling(10);
+        assertEquals(0, checker.count.get());
+        assertEquals(10L, device.getListenerErrorCount());
+
+        // the device recovers once the listeners can run again
+        device.setListenerExecutor(null);
+        pollToggling(10);
+        assertEquals(10, checker.count.get());
+    }
+
+    private void pollToggling(final int polls) {
+        for (int i = 0; i < polls; i++) {
+            backend.setButtons(0, (device.getComponents().getButtons().getMask() & 1) ^ 1);
+            device.poll();
+        }
+    }
+
+    private static void awaitDelivered(final Checker checker, final int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (checker.count.get() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, checker.count.get());
+    }
+
+    /**
+     * Records the events it receives as text.
+     */
+    private static final class EventRecorder extends SimpleXInputDeviceListener {
+        private final List<String> events;
+
+        EventRecorder(final List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void connected() {
+            events.add("connected");
+        }
+
+        @Override
+        public void disconnected() {
+            events.add("disconnected");
+        }
+
+        @Override
+        public void buttonChanged(final XInputButton button, final boolean pressed) {
+            events.add(button + (pressed ? " pressed" : " released"));
+        }
+    }
+
+    /**
+     * Checks that the events arrive one at a time and in the order of the polls.
+     */
+    private static class Checker implements XInputStateListener {
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        final AtomicBoolean otherThread = new AtomicBoolean();
+        private final Thread creator = Thread.currentThread();
+        private long lastTimestamp;
+
+        @Override
+        public void stateChanged(final XInputDevice device, final int pressedMask, final int releasedMask,
+            final int dirtyAxes, final long timestamp) {
+            if (running.incrementAndGet() != 1) {
+                failure.compareAndSet(null, "listeners ran concurrently");
+            }
+            if (timestamp < lastTimestamp) {
+                failure.compareAndSet(null, "event of " + timestamp + " delivered after " + lastTimestamp);
+            }
+            if (Thread.currentThread() != creator) {
+                otherThread.set(true);
+            }
+            lastTimestamp = timestamp;
+            count.incrementAndGet();
+            running.decrementAndGet();
+        }
+
+        void assertValid() {
+            assertEquals(null, failure.get());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.ivan.xinput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests that the listener registry never modifies an array it has published.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputListenerRegistryTest {
+    private static final String[] EMPTY = new String[0];
+
+    @Test
+    public void addsAndRemovesInOrder() {
+        final XInputListenerRegistry<String> registry = new XInputListenerRegistry<String>(EMPTY);
+        assertTrue(registry.isEmpty());
+        assertSame(EMPTY, registry.get());
+
+        registry.add("a");
+        registry.add("b");
+        registry.add("c");
+        registry.add("b");
+        assertEquals(Arrays.asList("a", "b", "c", "b"), Arrays.asList(registry.get()));
+
+        // only the first occurrence is removed
+        assertTrue(registry.remove("b"));
+        assertEquals(Arrays.asList("a", "c", "b"), Arrays.asList(registry.get()));
+        assertFalse(registry.remove("d"));
+
+        assertTrue(registry.remove("a"));
+        assertTrue(registry.remove("b"));
+        assertTrue(registry.remove("c"));
+        assertTrue(registry.isEmpty());
+        assertSame(EMPTY, registry.get());
+    }
+
+    @Test
+    public void leavesPublishedArraysUntouched() {
+        final XInputListenerRegistry<String> registry = new XInputListenerRegistry<String>(EMPTY);
+        registry.add("a");
+        registry.add("b");
+        final String[] published = registry.get();
+
+        registry.remove("a");
+        registry.add("c");
+
+        assertEquals(Arrays.asList("a", "b"), Arrays.asList(published));
+        assertEquals(Arrays.asList("b", "c"), Arrays.asList(registry.get()));
+    }
+}
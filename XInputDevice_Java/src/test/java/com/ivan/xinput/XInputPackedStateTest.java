@@ -0,0 +1,69 @@
+package com.ivan.xinput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.ivan.xinput.backend.XInputSimulatedBackend;
+import com.ivan.xinput.enums.XInputButton;
+
+/**
+ * Tests packing, unpacking and comparing {@link XInputPackedState packed states}.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputPackedStateTest {
+    @Test
+    public void unpacksPackedFields() {
+        final long low = XInputPackedState.packLow(0xf3ff, 255, 1, -32768, 32767);
+        final long high = XInputPackedState.packHigh(-1, 12345);
+        final XInputPackedState state = new XInputPackedState(low, high, 7, 100L);
+        assertEquals(0xf3ff, state.getButtons());
+        assertEquals(255, state.getLeftTrigger());
+        assertEquals(1, state.getRightTrigger());
+        assertEquals(-32768, state.getThumbLX());
+        assertEquals(32767, state.getThumbLY());
+        assertEquals(-1, state.getThumbRX());
+        assertEquals(12345, state.getThumbRY());
+        assertEquals(0L, high >>> 32);
+    }
+
+    @Test
+    public void comparesPayloadAndPacketNumber() {
+        final long low = XInputPackedState.packLow(XInputButton.A.getMask(), 10, 20, 30, 40);
+        final long high = XInputPackedState.packHigh(50, 60);
+        final XInputPackedState state = new XInputPackedState(low, high, 1, 100L);
+
+        // the timestamp is not part of the value
+        final XInputPackedState later = new XInputPackedState(low, high, 1, 200L);
+        assertEquals(state, later);
+        assertEquals(state.hashCode(), later.hashCode());
+
+        final XInputPackedState nextPacket = new XInputPackedState(low, high, 2, 100L);
+        assertFalse(state.equals(nextPacket));
+        assertTrue(state.sameGamepad(nextPacket));
+
+        final XInputPackedState moved = new XInputPackedState(low, XInputPackedState.packHigh(51, 60), 1, 100L);
+        assertFalse(state.equals(moved));
+        assertFalse(state.sameGamepad(moved));
+    }
+
+    @Test
+    public void readsOfUnchangedDeviceAreEqual() throws InterruptedException {
+        final XInputSimulatedBackend backend = new XInputSimulatedBackend();
+        backend.setConnected(0, true);
+        backend.setState(0, XInputButton.B.getMask(), 0, 128, 1000, -1000, 0, 0);
+        final XInputDevice first = new XInputDevice(0, backend, XInputDevice.newStatesBuffer());
+        final XInputDevice second = new XInputDevice(0, backend, XInputDevice.newStatesBuffer());
+
+        first.poll();
+        Thread.sleep(1);
+        second.poll();
+        final XInputPackedState a = first.getPackedState();
+        final XInputPackedState b = second.getPackedState();
+        assertTrue(a.getTimestamp() != b.getTimestamp());
+        assertEquals(a, b);
+    }
+}
@@ -0,0 +1,113 @@
+package com.ivan.xinput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.ivan.xinput.backend.XInputSimulatedBackend;
+
+/**
+ * Tests that restarting an {@link XInputPoller} from its own polling thread never leaves two threads polling, and that
+ * failing devices do not stop the poller.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputPollerTest {
+    private static final int RESTARTS = 50;
+
+    @Test
+    public void restartFromPollingThreadDoesNotOverlap() throws InterruptedException {
+        final RestartingBackend backend = new RestartingBackend();
+        backend.setConnected(0, true);
+        final XInputDevice device = new XInputDevice(0, backend, XInputDevice.newStatesBuffer());
+        final XInputPoller poller = new XInputPoller(1000, device);
+        backend.poller = poller;
+
+        poller.start();
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (backend.restarts.get() < RESTARTS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        poller.stop();
+
+        assertNull(backend.error);
+        assertFalse("two threads polled at the same time", backend.overlapped.get());
+        assertFalse(poller.isRunning());
+    }
+
+    @Test
+    public void keepsPollingAfterDeviceErrors() throws InterruptedException {
+        final FailingBackend backend = new FailingBackend();
+        backend.setConnected(0, true);
+        backend.setConnected(1, true);
+        final XInputDevice failing = new XInputDevice(0, backend, XInputDevice.newStatesBuffer());
+        final XInputDevice working = new XInputDevice(1, backend, XInputDevice.newStatesBuffer());
+        final XInputPoller poller = new XInputPoller(1000, failing, working);
+
+        poller.start();
+        final long deadline = System.currentTimeMillis() + 10000;
+        // wait for a measured rate as well, to check that stopping clears it
+        while ((backend.polls.get() < 100 || poller.getObservedRate() == 0) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(poller.isRunning());
+        assertTrue(poller.getObservedRate() > 0);
+        poller.stop();
+
+        // the device after the failing one is still polled, and the error does not kill the polling thread
+        assertTrue(backend.polls.get() >= 100);
+        assertTrue(poller.getErrorCount() >= 100);
+        assertTrue(poller.getLastError() instanceof AssertionError);
+        assertEquals(0.0, poller.getObservedRate(), 0.0);
+    }
+
+    private static final class FailingBackend extends XInputSimulatedBackend {
+        final AtomicInteger polls = new AtomicInteger();
+
+        @Override
+        public int pollDevice(final int playerNum, final ByteBuffer data) {
+            if (playerNum == 0) {
+                throw new AssertionError("simulated failure");
+            }
+            polls.incrementAndGet();
+            return super.pollDevice(playerNum, data);
+        }
+    }
+
+    private static final class RestartingBackend extends XInputSimulatedBackend {
+        volatile XInputPoller poller;
+        volatile Throwable error;
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger restarts = new AtomicInteger();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+
+        @Override
+        public int pollDevice(final int playerNum, final ByteBuffer data) {
+            if (active.incrementAndGet() > 1) {
+                overlapped.set(true);
+            }
+            try {
+                if (restarts.get() < RESTARTS) {
+                    restarts.incrementAndGet();
+                    poller.stop();
+                    poller.start();
+                }
+                // keep the old thread busy after the restart, while the new one may already be running
+                Thread.sleep(1);
+                return super.pollDevice(playerNum, data);
+            } catch (final Throwable t) {
+                error = t;
+                return 0;
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+    }
+}
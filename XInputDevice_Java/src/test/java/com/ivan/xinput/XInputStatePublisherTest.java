@@ -0,0 +1,121 @@
+package com.ivan.xinput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Tests the seqlock of {@link XInputStatePublisher} by checking that readers never see a snapshot mixing the words of two
+ * publications.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputStatePublisherTest {
+    private static final int READERS = 3;
+    private static final int PUBLICATIONS = 2000000;
+
+    @Test
+    public void readsInitialState() {
+        final XInputStatePublisher publisher = new XInputStatePublisher();
+        final XInputSnapshot snapshot = new XInputSnapshot();
+        publisher.read(snapshot);
+        assertFalse(snapshot.isConnected());
+        assertEquals(0, snapshot.getPacketNumber());
+        assertEquals(0L, snapshot.getGeneration());
+    }
+
+    @Test
+    public void readsPublishedState() {
+        final XInputStatePublisher publisher = new XInputStatePublisher();
+        final XInputSnapshot snapshot = new XInputSnapshot();
+        publish(publisher, new XInputAxes(), 42);
+        publisher.read(snapshot);
+        check(snapshot, 42);
+    }
+
+    @Test
+    public void snapshotsNeverMixPublications() throws InterruptedException {
+        final XInputStatePublisher publisher = new XInputStatePublisher();
+        final XInputAxes axes = new XInputAxes();
+        publish(publisher, axes, 0);
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch started = new CountDownLatch(READERS);
+        final Thread[] readers = new Thread[READERS];
+        final long[] reads = new long[READERS];
+        for (int i = 0; i < READERS; i++) {
+            final int index = i;
+            readers[i] = new Thread("reader-" + i) {
+                @Override
+                public void run() {
+                    final XInputSnapshot snapshot = new XInputSnapshot();
+                    int last = 0;
+                    started.countDown();
+                    try {
+                        while (!done.get()) {
+                            publisher.read(snapshot);
+                            final int n = snapshot.getPacketNumber();
+                            check(snapshot, n);
+                            assertTrue("publications went back from " + last + " to " + n, n >= last);
+                            last = n;
+                            reads[index]++;
+                        }
+                    } catch (final Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                }
+            };
+            readers[i].start();
+        }
+
+        started.await();
+        for (int n = 1; n <= PUBLICATIONS && failure.get() == null; n++) {
+            publish(publisher, axes, n);
+        }
+        done.set(true);
+        for (final Thread reader : readers) {
+            reader.join();
+        }
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        for (int i = 0; i < READERS; i++) {
+            assertTrue("reader " + i + " did not read", reads[i] > 0);
+        }
+    }
+
+    /**
+     * Publishes a state in which every word is derived from the publication number.
+     */
+    private static void publish(final XInputStatePublisher publisher, final XInputAxes axes, final int n) {
+        axes.lx = n;
+        axes.ly = -n;
+        axes.rx = n + 1;
+        axes.ry = n + 2;
+        axes.lt = n + 3;
+        axes.rt = n + 4;
+        axes.dpad = n & 0xff;
+        publisher.publish((n & 1) != 0, n * 0x9e3779b97f4a7c15L, n & 0xffffffffL, n, n * 3L, axes);
+    }
+
+    private static void check(final XInputSnapshot snapshot, final int n) {
+        assertEquals("connected", (n & 1) != 0, snapshot.isConnected());
+        assertEquals("low word of " + n, n * 0x9e3779b97f4a7c15L, snapshot.getPackedLow());
+        assertEquals("high word of " + n, n & 0xffffffffL, snapshot.getPackedHigh());
+        assertEquals("generation of " + n, n * 3L, snapshot.getGeneration());
+        assertEquals("lx of " + n, (float) n, snapshot.lx, 0f);
+        assertEquals("ly of " + n, (float) -n, snapshot.ly, 0f);
+        assertEquals("rx of " + n, (float) (n + 1), snapshot.rx, 0f);
+        assertEquals("ry of " + n, (float) (n + 2), snapshot.ry, 0f);
+        assertEquals("lt of " + n, (float) (n + 3), snapshot.lt, 0f);
+        assertEquals("rt of " + n, (float) (n + 4), snapshot.rt, 0f);
+        assertEquals("dpad of " + n, n & 0xff, snapshot.dpad);
+    }
+}
@@ -0,0 +1,87 @@
+package com.ivan.xinput;
+
+import static com.ivan.xinput.natives.XInputConstants.MAX_PLAYERS;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_STATE_SLOT_SIZE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+import com.ivan.xinput.backend.XInputSimulatedBackend;
+import com.ivan.xinput.enums.XInputAxis;
+import com.ivan.xinput.enums.XInputButton;
+
+/**
+ * Tests that the state view reads the fields of the XINPUT_STATE struct at the offsets laid out by XInput.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputStateViewTest {
+    @Test
+    public void readsFieldsOfHandBuiltSlot() {
+        // return code, then XINPUT_STATE: DWORD dwPacketNumber, WORD wButtons, BYTE bLeftTrigger, BYTE bRightTrigger,
+        // SHORT sThumbLX, SHORT sThumbLY, SHORT sThumbRX, SHORT sThumbRY
+        final ByteBuffer slot = ByteBuffer.allocateDirect(XINPUT_STATE_SLOT_SIZE).order(ByteOrder.nativeOrder());
+        assertEquals(20, XINPUT_STATE_SLOT_SIZE);
+        slot.putInt(0, 0);
+        slot.putInt(4, 0x12345678);
+        slot.putShort(8, (short) (XInputButton.A.getMask() | XInputButton.DPAD_UP.getMask() | XInputButton.Y.getMask()));
+        slot.put(10, (byte) 200);
+        slot.put(11, (byte) 17);
+        slot.putShort(12, (short) -32768);
+        slot.putShort(14, (short) 32767);
+        slot.putShort(16, (short) -1);
+        slot.putShort(18, (short) 1234);
+
+        slot.position(4);
+        final XInputStateView view = new XInputStateView(slot.slice().order(ByteOrder.nativeOrder()));
+
+        assertEquals(0x12345678, view.getPacketNumber());
+        assertEquals(XInputButton.A.getMask() | XInputButton.DPAD_UP.getMask() | XInputButton.Y.getMask(),
+            view.getButtonMask());
+        assertTrue(view.isPressed(XInputButton.A));
+        assertTrue(view.isPressed(XInputButton.Y));
+        assertFalse(view.isPressed(XInputButton.B));
+        assertEquals(200, view.getLeftTrigger());
+        assertEquals(17, view.getRightTrigger());
+        assertEquals(-32768, view.getThumbLX());
+        assertEquals(32767, view.getThumbLY());
+        assertEquals(-1, view.getThumbRX());
+        assertEquals(1234, view.getThumbRY());
+
+        assertEquals(200, view.getRaw(XInputAxis.LEFT_TRIGGER));
+        assertEquals(-32768, view.getRaw(XInputAxis.LEFT_THUMBSTICK_X));
+        assertEquals(1234, view.getRaw(XInputAxis.RIGHT_THUMBSTICK_Y));
+        assertEquals(XInputAxes.DPAD_UP, view.getRaw(XInputAxis.DPAD));
+    }
+
+    @Test
+    public void readsSlotOfItsPlayer() {
+        final XInputSimulatedBackend backend = new XInputSimulatedBackend();
+        final ByteBuffer states = XInputDevice.newStatesBuffer();
+        final XInputDevice[] devices = new XInputDevice[MAX_PLAYERS];
+        for (int i = 0; i < devices.length; i++) {
+            devices[i] = new XInputDevice(i, backend, states);
+        }
+        backend.setConnected(1, true);
+        backend.setConnected(2, true);
+        backend.setState(1, XInputButton.B.getMask(), 10, 20, 100, 200, 300, 400);
+        backend.setState(2, XInputButton.X.getMask(), 30, 40, -100, -200, -300, -400);
+
+        XInputDevice.pollAll(devices, states);
+
+        final XInputStateView view1 = devices[1].getStateView();
+        final XInputStateView view2 = devices[2].getStateView();
+        assertEquals(XInputButton.B.getMask(), view1.getButtonMask());
+        assertEquals(XInputButton.X.getMask(), view2.getButtonMask());
+        assertEquals(20, view1.getRightTrigger());
+        assertEquals(30, view2.getLeftTrigger());
+        assertEquals(400, view1.getThumbRY());
+        assertEquals(-100, view2.getThumbLX());
+        assertEquals(devices[1].getPacketNumber(), view1.getPacketNumber());
+    }
+}
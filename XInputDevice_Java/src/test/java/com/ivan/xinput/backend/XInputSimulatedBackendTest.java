@@ -0,0 +1,83 @@
+package com.ivan.xinput.backend;
+
+import static com.ivan.xinput.natives.XInputConstants.ERROR_DEVICE_NOT_CONNECTED;
+import static com.ivan.xinput.natives.XInputConstants.ERROR_SUCCESS;
+import static com.ivan.xinput.natives.XInputConstants.MAX_PLAYERS;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_A;
+import static com.ivan.xinput.natives.XInputConstants.XINPUT_GAMEPAD_Y;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+/**
+ * Tests that the simulated backend reports the state it is given in the XINPUT_STATE layout, and rejects invalid player
+ * numbers.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputSimulatedBackendTest {
+    private final XInputSimulatedBackend backend = new XInputSimulatedBackend();
+    private final ByteBuffer data = ByteBuffer.allocate(32).order(ByteOrder.nativeOrder());
+
+    @Test
+    public void reportsStateOfConnectedPlayer() {
+        assertEquals(ERROR_DEVICE_NOT_CONNECTED, backend.pollDevice(1, data));
+
+        backend.setConnected(1, true);
+        backend.setButtons(1, XINPUT_GAMEPAD_A | XINPUT_GAMEPAD_Y);
+        backend.setTriggers(1, 200, 255);
+        backend.setThumbs(1, -32768, 32767, 100, -100);
+        assertEquals(ERROR_SUCCESS, backend.pollDevice(1, data));
+
+        // XINPUT_STATE: dwPacketNumber, then XINPUT_GAMEPAD
+        assertEquals((XINPUT_GAMEPAD_A | XINPUT_GAMEPAD_Y) & 0xffff, data.getShort(4) & 0xffff);
+        assertEquals(200, data.get(6) & 0xff);
+        assertEquals(255, data.get(7) & 0xff);
+        assertEquals(-32768, data.getShort(8));
+        assertEquals(32767, data.getShort(10));
+        assertEquals(100, data.getShort(12));
+        assertEquals(-100, data.getShort(14));
+
+        // other players are not affected
+        assertEquals(ERROR_DEVICE_NOT_CONNECTED, backend.pollDevice(0, data));
+    }
+
+    @Test
+    public void incrementsPacketNumberOnlyOnChange() {
+        backend.setConnected(0, true);
+        backend.pollDevice(0, data);
+        final int packetNumber = data.getInt(0);
+
+        backend.setButtons(0, XINPUT_GAMEPAD_A);
+        backend.pollDevice(0, data);
+        assertEquals(packetNumber + 1, data.getInt(0));
+
+        // setting the same state again is not a change
+        backend.setButtons(0, XINPUT_GAMEPAD_A);
+        backend.setTriggers(0, 0, 0);
+        backend.pollDevice(0, data);
+        assertEquals(packetNumber + 1, data.getInt(0));
+
+        backend.setTriggers(0, 1, 0);
+        backend.pollDevice(0, data);
+        assertEquals(packetNumber + 2, data.getInt(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pollRejectsNegativePlayer() {
+        backend.pollDevice(-1, data);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pollRejectsPlayerOutOfRange() {
+        backend.pollDevice(MAX_PLAYERS, data);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void vibrationRejectsPlayerOutOfRange() {
+        backend.setVibration(MAX_PLAYERS, 0, 0);
+    }
+}
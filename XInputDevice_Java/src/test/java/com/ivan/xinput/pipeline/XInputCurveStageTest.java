@@ -0,0 +1,95 @@
+package com.ivan.xinput.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.ivan.xinput.XInputAxes;
+import com.ivan.xinput.XInputComponents;
+
+/**
+ * Tests the response curves and the stage that applies them.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputCurveStageTest {
+    private static final float EPSILON = 1e-5f;
+
+    @Test
+    public void pointsInterpolateBetweenControlPoints() {
+        final XInputResponseCurve curve = XInputResponseCurve.points(0f, 0f, 0.5f, 0.2f, 1f, 1f);
+        assertEquals(0f, curve.apply(0f), EPSILON);
+        assertEquals(0.1f, curve.apply(0.25f), EPSILON);
+        assertEquals(0.2f, curve.apply(0.5f), EPSILON);
+        assertEquals(0.6f, curve.apply(0.75f), EPSILON);
+        assertEquals(1f, curve.apply(1f), EPSILON);
+    }
+
+    @Test
+    public void pointsAreFlatOutsideTheirRange() {
+        final XInputResponseCurve curve = XInputResponseCurve.points(0.2f, 0.1f, 0.8f, 0.9f);
+        assertEquals(0.1f, curve.apply(0f), EPSILON);
+        assertEquals(0.9f, curve.apply(1f), EPSILON);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pointsRejectUnorderedInputs() {
+        XInputResponseCurve.points(0.5f, 0f, 0.25f, 1f);
+    }
+
+    @Test
+    public void mapsEndpoints() {
+        final XInputComponents components = components(0f, 0f, 1f, 0f, 0f, 1f);
+        new XInputCurveStage(XInputResponseCurve.sCurve(3f)).process(components);
+        final XInputAxes axes = components.getAxes();
+        assertEquals(0f, axes.lx, EPSILON);
+        assertEquals(0f, axes.ly, EPSILON);
+        assertEquals(1f, axes.rx, EPSILON);
+        assertEquals(0f, axes.ry, EPSILON);
+        assertEquals(0f, axes.lt, EPSILON);
+        assertEquals(1f, axes.rt, EPSILON);
+    }
+
+    @Test
+    public void keepsDirectionOfSticks() {
+        final XInputComponents components = components(0.3f, -0.4f, 0.6f, 0.6f, 0f, 0f);
+        new XInputCurveStage(XInputResponseCurve.power(2f)).process(components);
+        final XInputAxes axes = components.getAxes();
+        // the magnitude 0.5 maps to 0.25, in the same direction
+        assertEquals(0.15f, axes.lx, 1e-4f);
+        assertEquals(-0.2f, axes.ly, 1e-4f);
+        final float magnitude = (float) Math.sqrt(0.72);
+        assertEquals(axes.rx, axes.ry, EPSILON);
+        assertEquals(magnitude * magnitude, (float) Math.hypot(axes.rx, axes.ry), 1e-4f);
+    }
+
+    @Test
+    public void interpolatesBetweenEntries() {
+        // without interpolation, every value within one table step would read as the nearest entry
+        final XInputCurveStage stage = new XInputCurveStage(XInputResponseCurve.LINEAR);
+        float last = -1f;
+        for (int i = 0; i <= 100; i++) {
+            final float value = i / 100f / (XInputCurveStage.STICK_STEPS - 1);
+            final XInputComponents components = components(value, 0f, 0f, 0f, 0f, 0f);
+            stage.process(components);
+            assertEquals(value, components.getAxes().lx, 1e-7f);
+            assertTrue(components.getAxes().lx > last);
+            last = components.getAxes().lx;
+        }
+    }
+
+    private static XInputComponents components(final float lx, final float ly, final float rx, final float ry,
+        final float lt, final float rt) {
+        final XInputComponents components = new XInputComponents() {
+        };
+        final XInputAxes axes = components.getAxes();
+        axes.lx = lx;
+        axes.ly = ly;
+        axes.rx = rx;
+        axes.ry = ry;
+        axes.lt = lt;
+        axes.rt = rt;
+        return components;
+    }
+}
@@ -0,0 +1,201 @@
+package com.ivan.xinput.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.ivan.xinput.XInputAxes;
+import com.ivan.xinput.XInputButtons;
+import com.ivan.xinput.XInputButtonsStage;
+import com.ivan.xinput.XInputComponents;
+import com.ivan.xinput.enums.XInputButton;
+import com.ivan.xinput.enums.XInputDeadzoneMode;
+
+/**
+ * Tests pipelines and the built-in normalization, deadzone and remapping stages.
+ *
+ * @author Ivan "StrikerX3" Oliveira
+ */
+public class XInputPipelineTest {
+    private static final float EPSILON = 1e-3f;
+
+    @Test
+    public void combinesStageProperties() {
+        assertFalse(XInputPipeline.RAW.isNormalized());
+        assertFalse(XInputPipeline.RAW.isContinuous());
+        assertTrue(XInputPipeline.NORMALIZED.isNormalized());
+        assertFalse(XInputPipeline.NORMALIZED.isContinuous());
+
+        final XInputPipeline filtered = new XInputPipeline(new XInputDeadzoneStage(), new XInputEmaFilterStage(10f));
+        assertTrue(filtered.isNormalized());
+        assertTrue(filtered.isContinuous());
+
+        // custom stages are classified by what they report, not by their class
+        final XInputPipeline custom = new XInputPipeline(new CustomStage(true, true));
+        assertTrue(custom.isNormalized());
+        assertTrue(custom.isContinuous());
+        assertFalse(new XInputPipeline(new CustomStage(false, false)).isNormalized());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rejectsNullStages() {
+        new XInputPipeline(new XInputNormalizeStage(), null);
+    }
+
+    @Test
+    public void runsStagesInOrder() {
+        final XInputComponents components = components(0, 0, 0, 0, 0, 0);
+        components.getAxes().lxRaw = 16384;
+        new XInputPipeline(new XInputNormalizeStage(), new XInputCurveStage(XInputResponseCurve.power(2f))).process(components);
+        assertEquals(0.25f, components.getAxes().lx, EPSILON);
+    }
+
+    @Test
+    public void normalizesRawValues() {
+        final XInputComponents components = components(-32768, 16384, 0, 0, 255, 51);
+        new XInputNormalizeStage().process(components);
+        final XInputAxes axes = components.getAxes();
+        assertEquals(-1f, axes.lx, EPSILON);
+        assertEquals(0.5f, axes.ly, EPSILON);
+        assertEquals(1f, axes.lt, EPSILON);
+        assertEquals(0.2f, axes.rt, EPSILON);
+    }
+
+    @Test
+    public void appliesAxialDeadzones() {
+        final XInputComponents components = components(raw(0.1f), raw(0.6f), raw(-0.6f), raw(0.19f), 20, 255);
+        deadzone(XInputDeadzoneMode.AXIAL).process(components);
+        final XInputAxes axes = components.getAxes();
+        assertEquals(0f, axes.lx, 0f);
+        assertEquals(0.5f, axes.ly, EPSILON);
+        assertEquals(-0.5f, axes.rx, EPSILON);
+        assertEquals(0f, axes.ry, 0f);
+        assertEquals(0f, axes.lt, 0f);
+        assertEquals(1f, axes.rt, EPSILON);
+    }
+
+    @Test
+    public void appliesRadialDeadzones() {
+        // (0.15, 0.15) has a magnitude of 0.21, outside the deadzone even though each axis is inside it
+        final XInputComponents components = components(raw(0.1f), raw(0.1f), raw(0.15f), raw(0.15f), 0, 0);
+        deadzone(XInputDeadzoneMode.RADIAL).process(components);
+        final XInputAxes axes = components.getAxes();
+        assertEquals(0f, axes.lx, 0f);
+        assertEquals(0f, axes.ly, 0f);
+        assertEquals(0.15f, axes.rx, EPSILON);
+        assertEquals(0.15f, axes.ry, EPSILON);
+    }
+
+    @Test
+    public void rescalesScaledRadialDeadzones() {
+        final XInputComponents components = components(raw(0.3f), raw(0.4f), raw(0.6f), 0, 0, 0);
+        deadzone(XInputDeadzoneMode.SCALED_RADIAL).process(components);
+        final XInputAxes axes = components.getAxes();
+        // the magnitude 0.5 becomes (0.5 - 0.2) / 0.8 = 0.375, in the same direction
+        assertEquals(0.225f, axes.lx, EPSILON);
+        assertEquals(0.3f, axes.ly, EPSILON);
+        assertEquals(0.5f, axes.rx, EPSILON);
+        assertEquals(0f, axes.ry, 0f);
+    }
+
+    @Test
+    public void saturatesAtOuterDeadzone() {
+        final XInputComponents components = components(raw(0.95f), 0, raw(-0.7f), raw(-0.7f), 0, 0);
+        new XInputDeadzoneStage(XInputDeadzoneMode.SCALED_RADIAL, 0.2f, 0.2f, 0.9f, 0f).process(components);
+        final XInputAxes axes = components.getAxes();
+        assertEquals(1f, axes.lx, EPSILON);
+        assertEquals(1f, (float) Math.hypot(axes.rx, axes.ry), EPSILON);
+        assertEquals(axes.rx, axes.ry, EPSILON);
+    }
+
+    @Test
+    public void remapsButtons() {
+        final Map<XInputButton, XInputButton> mapping = new EnumMap<XInputButton, XInputButton>(XInputButton.class);
+        mapping.put(XInputButton.A, XInputButton.B);
+        mapping.put(XInputButton.B, XInputButton.A);
+        mapping.put(XInputButton.X, XInputButton.DPAD_LEFT);
+        final XInputPipeline pipeline = new XInputPipeline(new PressStage(XInputButton.A, XInputButton.X, XInputButton.Y),
+            new XInputRemapStage(mapping));
+
+        final XInputComponents components = components(0, 0, 0, 0, 0, 0);
+        pipeline.process(components);
+        final XInputButtons buttons = components.getButtons();
+        assertFalse(buttons.a);
+        assertTrue(buttons.b);
+        assertFalse(buttons.x);
+        assertTrue(buttons.y);
+        assertTrue(buttons.left);
+        // the D-Pad axis follows the remapped buttons
+        assertEquals(XInputAxes.DPAD_LEFT, components.getAxes().dpad);
+    }
+
+    private static XInputDeadzoneStage deadzone(final XInputDeadzoneMode mode) {
+        return new XInputDeadzoneStage(mode, 0.2f, 0.2f, 1f, 0.1f);
+    }
+
+    private static int raw(final float value) {
+        return Math.round(value * 32768f);
+    }
+
+    private static XInputComponents components(final int lx, final int ly, final int rx, final int ry, final int lt,
+        final int rt) {
+        final XInputComponents components = new XInputComponents() {
+        };
+        final XInputAxes axes = components.getAxes();
+        axes.lxRaw = lx;
+        axes.lyRaw = ly;
+        axes.rxRaw = rx;
+        axes.ryRaw = ry;
+        axes.ltRaw = lt;
+        axes.rtRaw = rt;
+        return components;
+    }
+
+    private static final class CustomStage implements XInputStage {
+        private final boolean normalizing;
+        private final boolean continuous;
+
+        CustomStage(final boolean normalizing, final boolean continuous) {
+            this.normalizing = normalizing;
+            this.continuous = continuous;
+        }
+
+        @Override
+        public void process(final XInputComponents components) {}
+
+        @Override
+        public boolean isNormalizing() {
+            return normalizing;
+        }
+
+        @Override
+        public boolean isContinuous() {
+            return continuous;
+        }
+    }
+
+    /**
+     * Presses buttons, standing in for the state decoded from XInput.
+     */
+    private static final class PressStage extends XInputButtonsStage {
+        private final int mask;
+
+        PressStage(final XInputButton... buttons) {
+            int mask = 0;
+            for (final XInputButton button : buttons) {
+                mask |= button.getMask();
+            }
+            this.mask = mask;
+        }
+
+        @Override
+        public void process(final XInputComponents components) {
+            setButtonMask(components, mask);
+        }
+    }
+}
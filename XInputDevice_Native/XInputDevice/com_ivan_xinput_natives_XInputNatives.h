@@ -23,6 +23,14 @@ JNIEXPORT jint JNICALL Java_com_ivan_xinput_natives_XInputNatives_pollDevice
 JNIEXPORT jint JNICALL Java_com_ivan_xinput_natives_XInputNatives_setVibration
   (JNIEnv *, jclass, jint, jint, jint);
 
+/*
+ * Class:     com_ivan_xinput_natives_XInputNatives
+ * Method:    pollDevices
+ * Signature: (ILjava/nio/ByteBuffer;)V
+ */
+JNIEXPORT void JNICALL Java_com_ivan_xinput_natives_XInputNatives_pollDevices
+  (JNIEnv *, jclass, jint, jobject);
+
 #ifdef __cplusplus
 }
 #endif
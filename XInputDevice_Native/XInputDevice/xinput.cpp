@@ -123,4 +123,27 @@ JNIEXPORT jint JNICALL Java_com_ivan_xinput_natives_XInputNatives_setVibration
 	vib.wRightMotorSpeed = rightMotor & 0xFFFF;
 
 	return XInputGamePadSetState(playerNum, &vib);
-}
\ No newline at end of file
+}
+
+JNIEXPORT void JNICALL Java_com_ivan_xinput_natives_XInputNatives_pollDevices
+  (JNIEnv *env, jclass cls, jint playerMask, jobject byteBuffer)
+{
+	// the byte buffer must be allocatedDirect(XUSER_MAX_COUNT * 20)'d in Java;
+	// each slot contains the DWORD return code followed by the XINPUT_STATE struct
+	char *bbuf = (char *)env->GetDirectBufferAddress(byteBuffer);
+
+	for (DWORD i = 0; i < XUSER_MAX_COUNT; i++)
+	{
+		// players that are not due keep their slot untouched
+		if ((playerMask & (1 << i)) == 0)
+		{
+			continue;
+		}
+
+		char *slot = bbuf + i * (sizeof(DWORD) + sizeof(XINPUT_STATE));
+		XINPUT_STATE *state = (XINPUT_STATE *)(slot + sizeof(DWORD));
+		ZeroMemory(state, sizeof(XINPUT_STATE));
+
+		*(DWORD *)slot = XInputGamePadGetState(i, state);
+	}
+}